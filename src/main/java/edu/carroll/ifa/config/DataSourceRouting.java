@@ -0,0 +1,58 @@
+package edu.carroll.ifa.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Decides whether a connection comes from the primary database or the read replica. Read-only transactions go to the
+ * replica and everything else goes to the primary. Code that has to see its own latest writes, or that reads before
+ * writing, can force the primary with onPrimary. Without a replica configured this has no effect.
+ */
+public class DataSourceRouting extends AbstractRoutingDataSource {
+    /**
+     * The databases a connection can come from.
+     */
+    public enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> forcePrimary = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Runs a query against the primary even if it is in a read-only transaction. The transaction must not have
+     * fetched its connection yet, since the connection is picked on the first statement.
+     * @param query - Query to run
+     * @return the result of the query
+     * @param <T> - Type of the result
+     */
+    public static <T> T onPrimary(Supplier<T> query) {
+        final boolean previous = forcePrimary.get();
+        forcePrimary.set(true);
+        try {
+            return query.get();
+        } finally {
+            forcePrimary.set(previous);
+        }
+    }
+
+    /**
+     * Returns the database the next connection on this thread should come from.
+     * @return PRIMARY or REPLICA
+     */
+    public static Target currentTarget() {
+        return !forcePrimary.get() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    /**
+     * Picks the target data source for a new connection.
+     * @return the current target
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentTarget();
+    }
+}
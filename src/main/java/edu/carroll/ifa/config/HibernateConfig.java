@@ -0,0 +1,32 @@
+package edu.carroll.ifa.config;
+
+import edu.carroll.ifa.jpa.stats.SlowQueryConnectionProvider;
+import edu.carroll.ifa.jpa.stats.SlowQueryLog;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks the slow query log into Hibernate. The per-query statistics themselves are turned on with
+ * spring.jpa.properties.hibernate.generate_statistics.
+ */
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * Registers the connection provider that times Hibernate's statements for the slow query log.
+     * @param thresholdMs - Statements slower than this are logged, negative turns the log off
+     * @return the customizer that adds it to the Hibernate settings
+     */
+    @Bean
+    public HibernatePropertiesCustomizer slowQueryLogCustomizer(@Value("${ifa.slow-query.threshold-ms:200}") long thresholdMs) {
+        final SlowQueryLog slowQueryLog = new SlowQueryLog(thresholdMs);
+        return properties -> {
+            if (slowQueryLog.isEnabled()) {
+                properties.put(AvailableSettings.CONNECTION_PROVIDER, new SlowQueryConnectionProvider(slowQueryLog));
+            }
+        };
+    }
+}
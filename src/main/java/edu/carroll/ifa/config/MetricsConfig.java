@@ -0,0 +1,87 @@
+package edu.carroll.ifa.config;
+
+import edu.carroll.ifa.service.PasswordHasher;
+import edu.carroll.ifa.service.TrainingLogBuffer;
+import edu.carroll.ifa.service.UserCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the application's own pools and caches as metrics next to the ones Spring Boot already provides (the
+ * Hikari connection pools, HTTP requests and the JVM), so a slow login can be pinned on BCrypt, the database or
+ * waiting for a connection.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Metrics for the BCrypt hashing pool: how busy it is, how long work waits for a thread and how long it runs.
+     * @param passwordHasher - PasswordHasher to report on
+     * @return the binder that registers the metrics
+     */
+    @Bean
+    public MeterBinder passwordHasherMetrics(PasswordHasher passwordHasher) {
+        return registry -> {
+            Gauge.builder("ifa.hashing.threads", passwordHasher, PasswordHasher::getPoolSize)
+                    .description("Number of hashing threads").register(registry);
+            Gauge.builder("ifa.hashing.threads.active", passwordHasher, PasswordHasher::getActiveCount)
+                    .description("Hashing threads currently doing BCrypt work").register(registry);
+            Gauge.builder("ifa.hashing.queue", passwordHasher, PasswordHasher::getQueueSize)
+                    .description("Hashing requests waiting for a thread").register(registry);
+            Gauge.builder("ifa.hashing.strength", passwordHasher, PasswordHasher::getStrength)
+                    .description("BCrypt work factor of new hashes").register(registry);
+            FunctionCounter.builder("ifa.hashing.rejected", passwordHasher, PasswordHasher::getRejectedCount)
+                    .description("Hashing requests turned away because the queue was full").register(registry);
+            FunctionTimer.builder("ifa.hashing.wait", passwordHasher, PasswordHasher::getStartedCount,
+                            PasswordHasher::getTotalWaitNanos, TimeUnit.NANOSECONDS)
+                    .description("Time hashing requests spent queued before a thread picked them up").register(registry);
+            FunctionTimer.builder("ifa.hashing.work", passwordHasher, PasswordHasher::getStartedCount,
+                            PasswordHasher::getTotalWorkNanos, TimeUnit.NANOSECONDS)
+                    .description("Time hashing threads spent doing BCrypt work").register(registry);
+        };
+    }
+
+    /**
+     * Metrics for the user cache: hits, misses, evictions and size.
+     * @param userCache - UserCache to report on
+     * @return the binder that registers the metrics
+     */
+    @Bean
+    public MeterBinder userCacheMetrics(UserCache userCache) {
+        return registry -> {
+            FunctionCounter.builder("ifa.user.cache.requests", userCache, cache -> cache.getStats().hits())
+                    .tag("result", "hit").description("User lookups answered by the cache").register(registry);
+            FunctionCounter.builder("ifa.user.cache.requests", userCache, cache -> cache.getStats().misses())
+                    .tag("result", "miss").description("User lookups that went to the database").register(registry);
+            FunctionCounter.builder("ifa.user.cache.evictions", userCache, cache -> cache.getStats().evictions())
+                    .description("Users dropped from the cache because it was full or they expired").register(registry);
+            Gauge.builder("ifa.user.cache.size", userCache, cache -> cache.getStats().size())
+                    .description("Users currently cached").register(registry);
+        };
+    }
+
+    /**
+     * Metrics for the training log buffer: how many logs are waiting, written, turned away and dropped.
+     * @param trainingLogBuffer - TrainingLogBuffer to report on
+     * @return the binder that registers the metrics
+     */
+    @Bean
+    public MeterBinder trainingLogBufferMetrics(TrainingLogBuffer trainingLogBuffer) {
+        return registry -> {
+            Gauge.builder("ifa.training.log.queue", trainingLogBuffer, TrainingLogBuffer::getQueueSize)
+                    .description("Training logs accepted but not written yet").register(registry);
+            FunctionCounter.builder("ifa.training.log.written", trainingLogBuffer, TrainingLogBuffer::getWrittenCount)
+                    .description("Training logs written to the database").register(registry);
+            FunctionCounter.builder("ifa.training.log.rejected", trainingLogBuffer, TrainingLogBuffer::getRejectedCount)
+                    .description("Training logs turned away because the buffer was full").register(registry);
+            FunctionCounter.builder("ifa.training.log.dropped", trainingLogBuffer, TrainingLogBuffer::getDroppedCount)
+                    .description("Accepted training logs that could not be written").register(registry);
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package edu.carroll.ifa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sets up a primary and a read replica connection pool when ifa.datasource.replica.url is set, and routes between
+ * them with DataSourceRouting. Without a replica Spring Boot's single data source is used as before.
+ * The routing data source is wrapped in a LazyConnectionDataSourceProxy, so the connection is only picked on the
+ * first statement, after the transaction has been marked read-only or not.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ifa.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Connection pool for the primary database, set up from the usual spring.datasource properties.
+     * @param properties - spring.datasource properties
+     * @return the primary pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        final HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Connection pool for the read replica. It uses the primary's driver, and its pool can be tuned under
+     * ifa.datasource.replica.hikari.
+     * @param properties - spring.datasource properties, for the driver
+     * @param url - JDBC url of the replica
+     * @param username - Username for the replica
+     * @param password - Password for the replica
+     * @return the replica pool
+     */
+    @Bean
+    @ConfigurationProperties("ifa.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${ifa.datasource.replica.url}") String url,
+                                              @Value("${ifa.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${ifa.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        final HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The data source everything else uses, which hands out primary or replica connections.
+     * @param primary - Primary pool
+     * @param replica - Replica pool
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        final DataSourceRouting routing = new DataSourceRouting();
+        routing.setTargetDataSources(Map.of(DataSourceRouting.Target.PRIMARY, primary, DataSourceRouting.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,13 @@
+package edu.carroll.ifa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on the @Scheduled background jobs. Each job's schedule is set in application.properties, and a cron of "-"
+ * leaves that job switched off.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,31 @@
+package edu.carroll.ifa.config;
+
+import edu.carroll.ifa.web.AdminInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration for the web application.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final AdminInterceptor adminInterceptor;
+
+    /**
+     * Constructs a WebConfig instance with the AdminInterceptor.
+     * @param adminInterceptor - AdminInterceptor that guards the admin pages
+     */
+    public WebConfig(AdminInterceptor adminInterceptor) {
+        this.adminInterceptor = adminInterceptor;
+    }
+
+    /**
+     * Registers the admin check in front of every admin page.
+     * @param registry - Registry of interceptors
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(adminInterceptor).addPathPatterns("/admin/**");
+    }
+}
@@ -0,0 +1,86 @@
+package edu.carroll.ifa.jpa.migration;
+
+import edu.carroll.ifa.jpa.model.User;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills in the normalized username for users that were saved before that column existed. This is Java rather than SQL
+ * because the normalization (NFKC and case folding, see User.normalizeUsername) can't be done in MySQL.
+ * If two usernames normalize to the same value the migration fails without changing anything and lists them, since
+ * only a person can decide which one to rename.
+ */
+public class V2__NormalizeUsernames extends BaseJavaMigration {
+    private static final Logger logger = LoggerFactory.getLogger(V2__NormalizeUsernames.class);
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Normalizes every username that has not been normalized yet, in id order and in batches.
+     * @param context - Flyway context holding the connection, inside the migration's transaction
+     * @throws SQLException if the database fails or two usernames collide after normalization
+     */
+    @Override
+    public void migrate(Context context) throws SQLException {
+        final Connection connection = context.getConnection();
+        final Map<String, String> taken = loadNormalizedUsernames(connection);
+        final List<String> collisions = new ArrayList<>();
+        int updated = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "select id, username from user where username_normalized is null order by id");
+             PreparedStatement update = connection.prepareStatement(
+                     "update user set username_normalized = ? where id = ?")) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rows = select.executeQuery()) {
+                int batched = 0;
+                while (rows.next()) {
+                    final String username = rows.getString("username");
+                    final String normalized = User.normalizeUsername(username);
+                    final String other = taken.putIfAbsent(normalized, username);
+                    if (other != null) {
+                        collisions.add("'" + username + "' and '" + other + "'");
+                        continue;
+                    }
+                    update.setString(1, normalized);
+                    update.setInt(2, rows.getInt("id"));
+                    update.addBatch();
+                    updated++;
+                    if (++batched == BATCH_SIZE) {
+                        update.executeBatch();
+                        batched = 0;
+                    }
+                }
+                if (batched > 0) {
+                    update.executeBatch();
+                }
+            }
+        }
+        if (!collisions.isEmpty()) {
+            throw new SQLException("These usernames are the same once normalized, rename one of each pair and restart: "
+                    + String.join(", ", collisions));
+        }
+        logger.info("migrate: normalized {} usernames", updated);
+    }
+
+    private static Map<String, String> loadNormalizedUsernames(Connection connection) throws SQLException {
+        final Map<String, String> taken = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                "select username, username_normalized from user where username_normalized is not null");
+             ResultSet rows = select.executeQuery()) {
+            while (rows.next()) {
+                taken.put(rows.getString("username_normalized"), rows.getString("username"));
+            }
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,68 @@
+package edu.carroll.ifa.jpa.model;
+
+/**
+ * The age bands the drills are grouped by. Players younger than the youngest drill band are counted in UNDER_5 so the
+ * bands always add up to every member.
+ */
+public enum AgeBand {
+    UNDER_5(0, 4, "Under 5"),
+    AGES_5_8(5, 8, "Ages 5-8"),
+    AGES_9_11(9, 11, "Ages 9-11"),
+    AGES_12_14(12, 14, "Ages 12-14"),
+    AGES_15_PLUS(15, Integer.MAX_VALUE, "Age 15+");
+
+    private final int minAge;
+    private final int maxAge;
+    private final String label;
+
+    AgeBand(int minAge, int maxAge, String label) {
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.label = label;
+    }
+
+    /**
+     * Given an age, returns the band it falls in.
+     * @param age - Age of the player
+     * @return the band the age falls in, UNDER_5 for anything below 5
+     */
+    public static AgeBand of(int age) {
+        if (age >= AGES_15_PLUS.minAge) {
+            return AGES_15_PLUS;
+        }
+        if (age >= AGES_12_14.minAge) {
+            return AGES_12_14;
+        }
+        if (age >= AGES_9_11.minAge) {
+            return AGES_9_11;
+        }
+        if (age >= AGES_5_8.minAge) {
+            return AGES_5_8;
+        }
+        return UNDER_5;
+    }
+
+    /**
+     * Returns the youngest age in the band.
+     * @return minimum age
+     */
+    public int getMinAge() {
+        return minAge;
+    }
+
+    /**
+     * Returns the oldest age in the band.
+     * @return maximum age, Integer.MAX_VALUE for the oldest band
+     */
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Returns the band's name as shown on the drills page.
+     * @return label
+     */
+    public String getLabel() {
+        return label;
+    }
+}
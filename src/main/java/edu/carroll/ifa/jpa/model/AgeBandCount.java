@@ -0,0 +1,64 @@
+package edu.carroll.ifa.jpa.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The number of members in one age band, kept up to date as users are added, changed and removed so it never has to
+ * be counted from the user table on a page load. See AgeBandCountService.
+ */
+@Entity
+@Table(name = "age_band_count")
+public class AgeBandCount {
+    @Id
+    @Enumerated(EnumType.STRING)
+    // a MySQL enum column, so a new band needs a migration that adds it along with its counter row
+    @Column(name = "band")
+    private AgeBand band;
+    @Column(name = "member_count", nullable = false)
+    private long memberCount;
+
+    /**
+     * No-argument constructor for Spring Data JPA.
+     */
+    public AgeBandCount() {
+    }
+
+    /**
+     * Constructor for an age band count.
+     * @param band - Age band counted
+     * @param memberCount - Number of members in the band
+     */
+    public AgeBandCount(AgeBand band, long memberCount) {
+        this.band = band;
+        this.memberCount = memberCount;
+    }
+
+    /**
+     * Returns the age band counted.
+     * @return age band
+     */
+    public AgeBand getBand() {
+        return band;
+    }
+
+    /**
+     * Returns the number of members in the band.
+     * @return member count
+     */
+    public long getMemberCount() {
+        return memberCount;
+    }
+
+    /**
+     * Sets the number of members in the band.
+     * @param memberCount - Number of members in the band
+     */
+    public void setMemberCount(long memberCount) {
+        this.memberCount = memberCount;
+    }
+}
@@ -0,0 +1,111 @@
+package edu.carroll.ifa.jpa.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * This is the Drill entity class, one row of the drills shown to players whose age falls in its range. The rows are
+ * loaded into the DrillCatalog, so changing them needs no redeploy.
+ */
+@Entity
+@Table(name = "drill")
+public class Drill {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    @Column(name = "min_age", nullable = false)
+    private Integer minAge;
+    // Null for drills with no upper age
+    @Column(name = "max_age")
+    private Integer maxAge;
+    @Column(name = "name", nullable = false, length = 64)
+    private String name;
+    @Column(name = "description", nullable = false, length = 512)
+    private String description;
+    // Drills for the same age are listed in this order
+    @Column(name = "sort_order", nullable = false)
+    private Integer sortOrder;
+
+    /**
+     * No-argument constructor for Spring Data JPA.
+     */
+    public Drill() {
+    }
+
+    /**
+     * Constructor for the drill.
+     * @param minAge - Youngest age the drill is for
+     * @param maxAge - Oldest age the drill is for, null for no upper age
+     * @param name - Name of the drill, such as Juggles
+     * @param description - What the player should do
+     * @param sortOrder - Position of the drill among the drills for the same age
+     */
+    public Drill(Integer minAge, Integer maxAge, String name, String description, Integer sortOrder) {
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.name = name;
+        this.description = description;
+        this.sortOrder = sortOrder;
+    }
+
+    /**
+     * Given an age, determine if the drill is meant for it.
+     * @param age - Age of the player
+     * @return true if the age is within the drill's range, false otherwise
+     */
+    public boolean isFor(int age) {
+        return age >= minAge && (maxAge == null || age <= maxAge);
+    }
+
+    /**
+     * Returns the drill's id.
+     * @return drill id
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Returns the youngest age the drill is for.
+     * @return minimum age
+     */
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    /**
+     * Returns the oldest age the drill is for.
+     * @return maximum age, null for no upper age
+     */
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Returns the drill's name.
+     * @return drill name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns what the player should do.
+     * @return drill description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the drill's position among the drills for the same age.
+     * @return sort order
+     */
+    public Integer getSortOrder() {
+        return sortOrder;
+    }
+}
@@ -0,0 +1,79 @@
+package edu.carroll.ifa.jpa.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * This is the JuggleRecord entity class, the most juggles a player has logged in one drill. It is the persisted side
+ * of the juggling leaderboards.
+ */
+@Entity
+@Table(name = "juggle_record")
+public class JuggleRecord {
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+    // the database removes a user's record with the user
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(name = "fk_juggle_record_user"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+    @Column(name = "best_juggles", nullable = false)
+    private int bestJuggles;
+    @Column(name = "achieved_at", nullable = false)
+    private Instant achievedAt;
+
+    /**
+     * No-argument constructor for Spring Data JPA.
+     */
+    public JuggleRecord() {
+    }
+
+    /**
+     * Constructor for a player's first juggling record.
+     * @param user - User who set the record
+     * @param bestJuggles - Juggles logged
+     * @param achievedAt - When the juggles were logged
+     */
+    public JuggleRecord(User user, int bestJuggles, Instant achievedAt) {
+        this.user = user;
+        this.bestJuggles = bestJuggles;
+        this.achievedAt = achievedAt;
+    }
+
+    /**
+     * Returns the id of the user who holds the record.
+     * @return user id
+     */
+    public Integer getUserId() {
+        return userId;
+    }
+
+    /**
+     * Returns the most juggles the player has logged.
+     * @return best juggles
+     */
+    public int getBestJuggles() {
+        return bestJuggles;
+    }
+
+    /**
+     * Returns when the record was set.
+     * @return time of the record
+     */
+    public Instant getAchievedAt() {
+        return achievedAt;
+    }
+}
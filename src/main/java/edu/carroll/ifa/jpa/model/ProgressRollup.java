@@ -0,0 +1,112 @@
+package edu.carroll.ifa.jpa.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * This is the ProgressRollup entity class, the totals of the drills one player logged in one day, week or month.
+ * Rows are added to as drills are logged, so charting progress never reads the logs themselves.
+ */
+@Entity
+@Table(name = "progress_rollup")
+public class ProgressRollup {
+    @EmbeddedId
+    private ProgressRollupId id;
+    // the database removes a user's rollups with the user
+    @MapsId("userId")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(name = "fk_progress_rollup_user"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+    @Column(name = "drills", nullable = false)
+    private int drills;
+    @Column(name = "minutes", nullable = false)
+    private long minutes;
+    @Column(name = "juggles", nullable = false)
+    private long juggles;
+    @Column(name = "shots", nullable = false)
+    private long shots;
+    // two nodes adding to the same row at once would otherwise lose one of the additions
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * No-argument constructor for Spring Data JPA.
+     */
+    public ProgressRollup() {
+    }
+
+    /**
+     * Constructor for an empty rollup.
+     * @param id - Key of the rollup
+     * @param user - User whose progress it is
+     */
+    public ProgressRollup(ProgressRollupId id, User user) {
+        this.id = id;
+        this.user = user;
+    }
+
+    /**
+     * Adds a logged drill to the totals.
+     * @param minutes - Minutes spent, null if not timed
+     * @param juggles - Juggles counted, null if not counted
+     * @param shots - Shots taken, null if not counted
+     */
+    public void add(Integer minutes, Integer juggles, Integer shots) {
+        this.drills++;
+        this.minutes += minutes == null ? 0 : minutes;
+        this.juggles += juggles == null ? 0 : juggles;
+        this.shots += shots == null ? 0 : shots;
+    }
+
+    /**
+     * Returns the key of the rollup.
+     * @return key
+     */
+    public ProgressRollupId getId() {
+        return id;
+    }
+
+    /**
+     * Returns the number of drills logged.
+     * @return drill count
+     */
+    public int getDrills() {
+        return drills;
+    }
+
+    /**
+     * Returns the total minutes.
+     * @return minutes
+     */
+    public long getMinutes() {
+        return minutes;
+    }
+
+    /**
+     * Returns the total juggles.
+     * @return juggles
+     */
+    public long getJuggles() {
+        return juggles;
+    }
+
+    /**
+     * Returns the total shots.
+     * @return shots
+     */
+    public long getShots() {
+        return shots;
+    }
+}
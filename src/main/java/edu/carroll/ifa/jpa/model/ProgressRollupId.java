@@ -0,0 +1,82 @@
+package edu.carroll.ifa.jpa.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Key of a ProgressRollup: whose progress, over which kind of period, starting on which day.
+ */
+@Embeddable
+public class ProgressRollupId implements Serializable {
+    @Column(name = "user_id")
+    private Integer userId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period", nullable = false)
+    private RollupPeriod period;
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    /**
+     * No-argument constructor for Spring Data JPA.
+     */
+    public ProgressRollupId() {
+    }
+
+    /**
+     * Constructor for a rollup key.
+     * @param userId - Id of the user
+     * @param period - Kind of period
+     * @param periodStart - First day of the period
+     */
+    public ProgressRollupId(Integer userId, RollupPeriod period, LocalDate periodStart) {
+        this.userId = userId;
+        this.period = period;
+        this.periodStart = periodStart;
+    }
+
+    /**
+     * Returns the id of the user.
+     * @return user id
+     */
+    public Integer getUserId() {
+        return userId;
+    }
+
+    /**
+     * Returns the kind of period.
+     * @return period
+     */
+    public RollupPeriod getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns the first day of the period.
+     * @return period start
+     */
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProgressRollupId other)) {
+            return false;
+        }
+        return Objects.equals(userId, other.userId) && period == other.period && Objects.equals(periodStart, other.periodStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, period, periodStart);
+    }
+}
@@ -0,0 +1,41 @@
+package edu.carroll.ifa.jpa.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * The periods player progress is rolled up by. Weeks start on Monday like the training plans.
+ */
+public enum RollupPeriod {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * Given a date, returns the first day of the period it falls in.
+     * @param date - Date in the period
+     * @return the first day of the period
+     */
+    public LocalDate startOf(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Given the first day of a period, returns the first day of the period a number of periods later.
+     * @param start - First day of a period
+     * @param periods - Number of periods to move, negative moves back
+     * @return the first day of the other period
+     */
+    public LocalDate plus(LocalDate start, long periods) {
+        return switch (this) {
+            case DAY -> start.plusDays(periods);
+            case WEEK -> start.plusWeeks(periods);
+            case MONTH -> start.plusMonths(periods);
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package edu.carroll.ifa.jpa.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * This is the TrainingLog entity class, one drill a player logged as done. Ids come from a sequence in blocks so
+ * logs can be inserted in JDBC batches, which an identity column would prevent.
+ */
+@Entity
+@Table(name = "training_log", indexes = @Index(name = "idx_training_log_user", columnList = "user_id, logged_at"))
+public class TrainingLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "training_log_id")
+    @SequenceGenerator(name = "training_log_id", sequenceName = "training_log_seq", allocationSize = 50)
+    private Long id;
+    // the database removes a user's logs with the user, so deleting users never has to load them
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_training_log_user"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+    @Column(name = "drill", nullable = false, length = 64)
+    private String drill;
+    @Column(name = "juggles")
+    private Integer juggles;
+    @Column(name = "minutes")
+    private Integer minutes;
+    @Column(name = "shots")
+    private Integer shots;
+    @Column(name = "logged_at", nullable = false)
+    private Instant loggedAt;
+
+    /**
+     * No-argument constructor for Spring Data JPA.
+     */
+    public TrainingLog() {
+    }
+
+    /**
+     * Constructor for a training log.
+     * @param user - User who did the drill
+     * @param drill - Name of the drill
+     * @param juggles - Juggles counted, null if not counted
+     * @param minutes - Minutes spent, null if not timed
+     * @param shots - Shots taken, null if not counted
+     * @param loggedAt - When the drill was logged
+     */
+    public TrainingLog(User user, String drill, Integer juggles, Integer minutes, Integer shots, Instant loggedAt) {
+        this.user = user;
+        this.drill = drill;
+        this.juggles = juggles;
+        this.minutes = minutes;
+        this.shots = shots;
+        this.loggedAt = loggedAt;
+    }
+
+    /**
+     * Returns the log's id.
+     * @return id
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the user who did the drill.
+     * @return user
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Returns the name of the drill.
+     * @return drill name
+     */
+    public String getDrill() {
+        return drill;
+    }
+
+    /**
+     * Returns the juggles counted.
+     * @return juggles, null if not counted
+     */
+    public Integer getJuggles() {
+        return juggles;
+    }
+
+    /**
+     * Returns the minutes spent.
+     * @return minutes, null if not timed
+     */
+    public Integer getMinutes() {
+        return minutes;
+    }
+
+    /**
+     * Returns the shots taken.
+     * @return shots, null if not counted
+     */
+    public Integer getShots() {
+        return shots;
+    }
+
+    /**
+     * Returns when the drill was logged.
+     * @return log time
+     */
+    public Instant getLoggedAt() {
+        return loggedAt;
+    }
+}
@@ -0,0 +1,103 @@
+package edu.carroll.ifa.jpa.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * This is the TrainingPlan entity class, the weekly schedule generated for one user by the nightly plan job. The
+ * schedule itself is stored as JSON so serving it is a single primary key lookup.
+ */
+@Entity
+@Table(name = "training_plan")
+public class TrainingPlan implements Persistable<Integer> {
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+    @Column(name = "schedule", nullable = false, length = 8192)
+    private String schedule;
+    @Column(name = "generated_at", nullable = false)
+    private Instant generatedAt;
+    // The job replaces plans by deleting and inserting them, so a plan it builds is always new. This saves Spring
+    // Data a select per plan to find that out.
+    @Transient
+    private boolean isNew = true;
+
+    /**
+     * No-argument constructor for Spring Data JPA.
+     */
+    public TrainingPlan() {
+    }
+
+    /**
+     * Constructor for the training plan.
+     * @param userId - Id of the user the plan is for
+     * @param weekStart - Monday of the week the plan is for
+     * @param schedule - Schedule as JSON
+     * @param generatedAt - When the plan was generated
+     */
+    public TrainingPlan(Integer userId, LocalDate weekStart, String schedule, Instant generatedAt) {
+        this.userId = userId;
+        this.weekStart = weekStart;
+        this.schedule = schedule;
+        this.generatedAt = generatedAt;
+    }
+
+    /**
+     * Returns the id of the user the plan is for, which is also the plan's id.
+     * @return user id
+     */
+    @Override
+    public Integer getId() {
+        return userId;
+    }
+
+    /**
+     * Returns whether the plan has not been saved yet.
+     * @return true until the plan is saved or if it was loaded, false otherwise
+     */
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    /**
+     * Returns the Monday of the week the plan is for.
+     * @return week start
+     */
+    public LocalDate getWeekStart() {
+        return weekStart;
+    }
+
+    /**
+     * Returns the schedule as JSON.
+     * @return schedule
+     */
+    public String getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Returns when the plan was generated.
+     * @return generation time
+     */
+    public Instant getGeneratedAt() {
+        return generatedAt;
+    }
+}
@@ -4,19 +4,39 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.Locale;
 import java.util.Objects;
 
 /**
  * This is the User entity class that helps persist data related to a user into a MySQL database.
  */
 @Entity
+// (name, id) so a name search can seek straight to where the last page ended and read the index in order
+@Table(indexes = {
+        @Index(name = "idx_user_lname", columnList = "lname, id"),
+        @Index(name = "idx_user_fname", columnList = "fname, id"),
+        @Index(name = "idx_user_last_active", columnList = "last_active_at")
+})
 public class User {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "user_id")
+    @GenericGenerator(name = "user_id", type = UserIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "user_seq"))
     private Integer id;
     @Column(name = "username", nullable = false, unique = true)
     private String username;
+    // Lookup key for the username, kept in step with username so lookups can use a plain unique index
+    @Column(name = "username_normalized", nullable = false, unique = true)
+    private String normalizedUsername;
     @Column(name = "fname", nullable = false)
     private String firstName;
     @Column(name = "lname", nullable = false)
@@ -25,6 +45,13 @@ public class User {
     private Integer age;
     @Column(name = "password", nullable = false)
     private String hashedPassword;
+    // When the user registered or last logged in, to the day. Null for users from before the column existed.
+    @Column(name = "last_active_at")
+    private Instant lastActiveAt;
+    // Bumped by every profile or password change, so an update made from an outdated copy of the user is caught
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
 
     /**
      * No-argument constructor for Spring Data JPA.
@@ -42,12 +69,29 @@ public class User {
      */
     public User(String username, String hashedPassword, String firstName, String lastName, Integer age) {
         this.username = username;
+        this.normalizedUsername = normalizeUsername(username);
         this.hashedPassword = hashedPassword;
         this.firstName = firstName;
         this.lastName = lastName;
         this.age = age;
     }
 
+    /**
+     * Copy constructor for the user, used to hand out detached copies that callers can change freely.
+     * @param other - User to copy, including its id
+     */
+    public User(User other) {
+        this.id = other.id;
+        this.username = other.username;
+        this.normalizedUsername = other.normalizedUsername;
+        this.hashedPassword = other.hashedPassword;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.age = other.age;
+        this.version = other.version;
+        this.lastActiveAt = other.lastActiveAt;
+    }
+
     /**
      * Returns the user's id.
      * @return user id
@@ -70,6 +114,31 @@ public class User {
      */
     public void setUsername(String username) {
         this.username = username;
+        this.normalizedUsername = normalizeUsername(username);
+    }
+
+    /**
+     * Returns the user's normalized username, which is what lookups by username compare against.
+     * @return user normalized username
+     */
+    public String getNormalizedUsername() {
+        return normalizedUsername;
+    }
+
+    /**
+     * Given a username, returns the form used to look it up so that usernames differing only by case or by how their
+     * accented characters are encoded are treated as the same user.
+     * @param username - Username provided by the user
+     * @return the normalized username, or null if the username is null
+     */
+    public static String normalizeUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        // NFKC gives every accented or compatibility character (í, ð, full-width digits) a single representation
+        final String composed = Normalizer.normalize(username, Normalizer.Form.NFKC);
+        // upper then lower case approximates Unicode case folding, e.g. "ß" and "ss" compare equal
+        return composed.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -136,6 +205,38 @@ public class User {
         this.hashedPassword = hashedPassword;
     }
 
+    /**
+     * Returns when the user registered or last logged in, only kept up to the day.
+     * @return last activity time, null if unknown
+     */
+    public Instant getLastActiveAt() {
+        return lastActiveAt;
+    }
+
+    /**
+     * Sets when the user was last active
+     * @param lastActiveAt - Last activity time
+     */
+    public void setLastActiveAt(Instant lastActiveAt) {
+        this.lastActiveAt = lastActiveAt;
+    }
+
+    /**
+     * Returns the version of the user that was read, null if the user has not been saved yet.
+     * @return user version
+     */
+    public Integer getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the user, for a copy of the user that has been brought up to date with the database.
+     * @param version - Version of the user in the database
+     */
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     /**
      * Compare two User objects for equality.
      * @param o - Object that gets compared with the user
@@ -0,0 +1,42 @@
+package edu.carroll.ifa.jpa.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Id generator for the User entity. It reserves a block of ids with one round trip to the user_seq sequence (a table
+ * on MySQL) and hands them out from memory, so a burst of registrations or an import only goes back for more ids once
+ * every block runs out.
+ * The block size comes from the ifa.user-id.allocation-size Hibernate setting (spring.jpa.properties.* in
+ * application.properties).
+ * This keeps using the user_seq table Hibernate already created for User. The pooled-lo optimizer treats the stored
+ * value as the first id of the next block, and that value is always above every id handed out before, so switching
+ * to it, or changing the block size, needs no data migration. A database whose user table was filled without
+ * user_seq should seed it once with the largest user id plus one.
+ */
+public class UserIdGenerator extends SequenceStyleGenerator {
+    public static final String ALLOCATION_SIZE_SETTING = "ifa.user-id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    /**
+     * Sets the block size and the pooled-lo optimizer before the standard sequence configuration runs.
+     * @param type - Type of the id
+     * @param params - Generator parameters from the mapping
+     * @param serviceRegistry - Hibernate service registry, used to read the allocation size setting
+     */
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        final Integer allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
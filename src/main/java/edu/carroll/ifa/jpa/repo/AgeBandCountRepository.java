@@ -0,0 +1,41 @@
+package edu.carroll.ifa.jpa.repo;
+
+import edu.carroll.ifa.jpa.model.AgeBand;
+import edu.carroll.ifa.jpa.model.AgeBandCount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * This interface extends JpaRepository for the age band counters.
+ */
+@Repository
+public interface AgeBandCountRepository extends JpaRepository<AgeBandCount, AgeBand> {
+
+    /**
+     * Adds to a band's count in the database, so concurrent changes never overwrite each other.
+     * @param band - Age band to change
+     * @param delta - Number of members to add, negative to subtract
+     * @return the number of rows updated, 0 if the band has no row yet
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update AgeBandCount c set c.memberCount = c.memberCount + :delta where c.band = :band")
+    int addToCount(@Param("band") AgeBand band, @Param("delta") long delta);
+
+    /**
+     * Returns every band's count, locking the rows until the transaction ends so no count changes while it is
+     * being reconciled.
+     * @return the counts
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from AgeBandCount c order by c.band")
+    List<AgeBandCount> findAllForUpdate();
+}
@@ -0,0 +1,9 @@
+package edu.carroll.ifa.jpa.repo;
+
+/**
+ * Number of users of one age.
+ * @param age - Age counted
+ * @param members - Number of users of that age
+ */
+public record AgeCount(Integer age, Long members) {
+}
@@ -0,0 +1,22 @@
+package edu.carroll.ifa.jpa.repo;
+
+import edu.carroll.ifa.jpa.model.Drill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * This interface extends JpaRepository for the drills.
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface DrillRepository extends JpaRepository<Drill, Integer> {
+
+    /**
+     * Returns every drill in the order they are listed in.
+     * @return all drills, by sort order and then id
+     */
+    List<Drill> findAllByOrderBySortOrderAscIdAsc();
+}
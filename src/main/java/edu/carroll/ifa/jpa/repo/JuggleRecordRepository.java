@@ -0,0 +1,60 @@
+package edu.carroll.ifa.jpa.repo;
+
+import edu.carroll.ifa.jpa.model.JuggleRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This interface extends JpaRepository for the juggling records.
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface JuggleRecordRepository extends JpaRepository<JuggleRecord, Integer> {
+
+    /**
+     * Returns every record with the player's username and age, to build the leaderboards from.
+     * @return every record
+     */
+    @Query("select new edu.carroll.ifa.jpa.repo.JuggleScore(u.id, u.username, u.age, r.bestJuggles, r.achievedAt) " +
+            "from JuggleRecord r join r.user u")
+    List<JuggleScore> findAllScores();
+
+    /**
+     * Returns the records of the given users with their username and age.
+     * @param userIds - Ids of the users
+     * @return the records of those users that have one
+     */
+    @Query("select new edu.carroll.ifa.jpa.repo.JuggleScore(u.id, u.username, u.age, r.bestJuggles, r.achievedAt) " +
+            "from JuggleRecord r join r.user u where u.id in :userIds")
+    List<JuggleScore> findScoresByUserIdIn(@Param("userIds") Collection<Integer> userIds);
+
+    /**
+     * Returns which of the given users already have a record.
+     * @param userIds - Ids of the users
+     * @return ids of the users with a record
+     */
+    @Query("select r.userId from JuggleRecord r where r.userId in :userIds")
+    List<Integer> findUserIdsWithRecord(@Param("userIds") Collection<Integer> userIds);
+
+    /**
+     * Raises a user's record in one statement if the new count beats it, so two nodes raising the same record at
+     * once can't lower it.
+     * @param userId - Id of the user
+     * @param juggles - Juggles logged
+     * @param achievedAt - When the juggles were logged
+     * @return 1 if the record was raised, 0 otherwise
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update JuggleRecord r set r.bestJuggles = :juggles, r.achievedAt = :achievedAt " +
+            "where r.userId = :userId and r.bestJuggles < :juggles")
+    int raiseBest(@Param("userId") int userId, @Param("juggles") int juggles, @Param("achievedAt") Instant achievedAt);
+}
@@ -0,0 +1,14 @@
+package edu.carroll.ifa.jpa.repo;
+
+import java.time.Instant;
+
+/**
+ * A player's juggling record together with who they are and the age they are ranked under.
+ * @param userId - Id of the user
+ * @param username - Username shown on the leaderboard
+ * @param age - Age of the user
+ * @param juggles - Most juggles the user has logged
+ * @param achievedAt - When the record was set
+ */
+public record JuggleScore(Integer userId, String username, Integer age, Integer juggles, Instant achievedAt) {
+}
@@ -0,0 +1,45 @@
+package edu.carroll.ifa.jpa.repo;
+
+import edu.carroll.ifa.jpa.model.ProgressRollup;
+import edu.carroll.ifa.jpa.model.ProgressRollupId;
+import edu.carroll.ifa.jpa.model.RollupPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This interface extends JpaRepository for the progress rollups.
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface ProgressRollupRepository extends JpaRepository<ProgressRollup, ProgressRollupId> {
+
+    /**
+     * Returns the rollups of the given users for periods starting on or after a day, to add new drills to them.
+     * @param userIds - Ids of the users
+     * @param from - Earliest period start to return
+     * @return the matching rollups
+     */
+    @Query("select r from ProgressRollup r where r.id.userId in :userIds and r.id.periodStart >= :from")
+    List<ProgressRollup> findForUpdate(@Param("userIds") Collection<Integer> userIds, @Param("from") LocalDate from);
+
+    /**
+     * Returns one user's rollups of one kind of period in a range, oldest first. The range is read straight off the
+     * primary key, so the cost depends on the range and not on how long the user has been logging.
+     * @param userId - Id of the user
+     * @param period - Kind of period
+     * @param from - First period start to return
+     * @param to - Last period start to return
+     * @return the rollups in the range, periods without drills have none
+     */
+    @Query("select r from ProgressRollup r where r.id.userId = :userId and r.id.period = :period " +
+            "and r.id.periodStart between :from and :to order by r.id.periodStart")
+    List<ProgressRollup> findRange(@Param("userId") int userId, @Param("period") RollupPeriod period,
+                                   @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,23 @@
+package edu.carroll.ifa.jpa.repo;
+
+import edu.carroll.ifa.jpa.model.TrainingLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * This interface extends JpaRepository for the training logs.
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface TrainingLogRepository extends JpaRepository<TrainingLog, Long> {
+
+    /**
+     * Returns every log of a user, oldest first.
+     * @param userId - Id of the user
+     * @return the user's logs
+     */
+    List<TrainingLog> findByUserIdOrderByLoggedAtAscIdAsc(Integer userId);
+}
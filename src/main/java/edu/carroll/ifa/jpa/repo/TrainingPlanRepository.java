@@ -0,0 +1,40 @@
+package edu.carroll.ifa.jpa.repo;
+
+import edu.carroll.ifa.jpa.model.TrainingPlan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * This interface extends JpaRepository for the training plans.
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface TrainingPlanRepository extends JpaRepository<TrainingPlan, Integer> {
+
+    /**
+     * Deletes the plans of every user id in a range in one statement, including users that no longer exist.
+     * @param fromId - Smallest user id in the range
+     * @param toId - Largest user id in the range
+     * @return the number of plans deleted
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from TrainingPlan p where p.userId between :fromId and :toId")
+    int deleteByUserIdRange(@Param("fromId") int fromId, @Param("toId") int toId);
+
+    /**
+     * Deletes the plans generated before a given time, which after a run are the plans of users it no longer covers.
+     * @param generatedAt - Time the run was started
+     * @return the number of plans deleted
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from TrainingPlan p where p.generatedAt < :generatedAt")
+    int deleteGeneratedBefore(@Param("generatedAt") Instant generatedAt);
+}
@@ -0,0 +1,21 @@
+package edu.carroll.ifa.jpa.repo;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Repository fragment for updating a User without loading it first.
+ */
+public interface UserColumnUpdates {
+    /**
+     * Writes only the given columns of a User in one UPDATE statement, and only if the User is still at the version the
+     * caller read. The version is bumped by the same statement.
+     * @param id - Id of the User
+     * @param version - Version of the User the caller read
+     * @param changes - New values keyed by User attribute name, such as "firstName"
+     * @return 1 if the User was updated, 0 if it does not exist or someone else changed it first
+     */
+    @Transactional
+    int updateColumnsIfCurrent(Integer id, Integer version, Map<String, Object> changes);
+}
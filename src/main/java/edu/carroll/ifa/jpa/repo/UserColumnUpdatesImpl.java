@@ -0,0 +1,52 @@
+package edu.carroll.ifa.jpa.repo;
+
+import edu.carroll.ifa.jpa.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Builds the UPDATE statement for UserColumnUpdates with the Criteria API, so the SET clause only names the columns
+ * that actually changed.
+ */
+public class UserColumnUpdatesImpl implements UserColumnUpdates {
+    private final EntityManager entityManager;
+
+    /**
+     * Constructs a UserColumnUpdatesImpl with the EntityManager.
+     * @param entityManager - EntityManager the update runs on
+     */
+    public UserColumnUpdatesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Writes only the given columns of a User if it is still at the version the caller read.
+     * @param id - Id of the User
+     * @param version - Version of the User the caller read
+     * @param changes - New values keyed by User attribute name, such as "firstName"
+     * @return 1 if the User was updated, 0 if it does not exist or someone else changed it first
+     */
+    @Override
+    @Transactional
+    public int updateColumnsIfCurrent(Integer id, Integer version, Map<String, Object> changes) {
+        if (id == null || version == null || changes.isEmpty()) {
+            return 0;
+        }
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        final Root<User> user = update.from(User.class);
+        changes.forEach(update::set);
+        update.set(user.<Integer>get("version"), cb.sum(user.get("version"), 1));
+        update.where(cb.equal(user.get("id"), id), cb.equal(user.get("version"), version));
+        // same as @Modifying(flushAutomatically = true, clearAutomatically = true) on the other update queries
+        entityManager.flush();
+        final int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
@@ -0,0 +1,26 @@
+package edu.carroll.ifa.jpa.repo;
+
+import java.time.Instant;
+
+/**
+ * Projection of the User entity with only what is needed to check a login, so the lookup does not load the whole row.
+ */
+public interface UserCredentials {
+    /**
+     * Returns the user's id.
+     * @return user id
+     */
+    Integer getId();
+
+    /**
+     * Returns the user's hashed password.
+     * @return associated hashed password for the user
+     */
+    String getHashedPassword();
+
+    /**
+     * Returns when the user registered or last logged in.
+     * @return last activity time, null if unknown
+     */
+    Instant getLastActiveAt();
+}
@@ -0,0 +1,25 @@
+package edu.carroll.ifa.jpa.repo;
+
+/**
+ * Projection of the User entity with what identifies it and the age it is counted under, for jobs that work through
+ * many users at a time.
+ */
+public interface UserKey {
+    /**
+     * Returns the user's id.
+     * @return user id
+     */
+    Integer getId();
+
+    /**
+     * Returns the user's normalized username.
+     * @return normalized username
+     */
+    String getNormalizedUsername();
+
+    /**
+     * Returns the user's age.
+     * @return user age
+     */
+    Integer getAge();
+}
@@ -1,24 +1,240 @@
 package edu.carroll.ifa.jpa.repo;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import edu.carroll.ifa.jpa.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 
 /**
- * An interface that extends JpaRepository and allows us to use JPA methods
+ * An interface that extends JpaRepository and allows us to use JPA methods.
+ * Queries run in read-only transactions so they can be served by the read replica, methods that write override that.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Integer> {
+@Transactional(readOnly = true)
+public interface UserRepository extends JpaRepository<User, Integer>, UserColumnUpdates {
+    /**
+     * Rows fetched per round trip when streaming users
+     */
+    String EXPORT_FETCH_SIZE = "500";
+
     // JPA throws an exception if we attempt to return a single object that doesn't exist (which is way more expensive),
     // so return a list even though we only expect either an empty list of a single element.
 
     /**
-     * Given a username, it returns the User in a list
-     * @param username - Username associated with the User object
+     * Given a normalized username, it returns the User in a list
+     * @param normalizedUsername - Username associated with the User object, already run through User.normalizeUsername
      * @return one User in a list if found, otherwise an empty list.
      */
-    List<User> findByUsernameIgnoreCase(String username);
+    List<User> findByNormalizedUsername(String normalizedUsername);
+
+    /**
+     * Given a normalized username, it returns only the User's age.
+     * @param normalizedUsername - Username associated with the User object, already run through User.normalizeUsername
+     * @return one age in a list if found, otherwise an empty list.
+     */
+    @Query("select u.age from User u where u.normalizedUsername = :normalizedUsername")
+    List<Integer> findAgeByNormalizedUsername(@Param("normalizedUsername") String normalizedUsername);
+
+    /**
+     * Given a user id, it returns only the User's current version.
+     * @param id - Id of the user
+     * @return one version in a list if found, otherwise an empty list.
+     */
+    @Query("select u.version from User u where u.id = :id")
+    List<Integer> findVersionById(@Param("id") Integer id);
+
+    /**
+     * Given a normalized username, returns the user's id and age without loading the user.
+     * @param normalizedUsername - Username already run through User.normalizeUsername
+     * @return the matching user's key, empty if there is none
+     */
+    List<UserKey> findKeysByNormalizedUsername(String normalizedUsername);
+
+    /**
+     * Counts the users of each age, which is at most a few hundred rows however many users there are.
+     * @return the number of users of each age that has any
+     */
+    @Query("select new edu.carroll.ifa.jpa.repo.AgeCount(u.age, count(u)) from User u group by u.age")
+    List<AgeCount> countByAge();
+
+    /**
+     * Returns the smallest user id.
+     * @return smallest id, null if there are no users
+     */
+    @Query("select min(u.id) from User u")
+    Integer findMinId();
+
+    /**
+     * Returns the largest user id.
+     * @return largest id, null if there are no users
+     */
+    @Query("select max(u.id) from User u")
+    Integer findMaxId();
+
+    /**
+     * Returns the users whose id is in a range, in id order.
+     * @param fromId - Smallest id in the range
+     * @param toId - Largest id in the range
+     * @return the users in the range
+     */
+    List<UserKey> findByIdBetweenOrderByIdAsc(int fromId, int toId);
+
+    /**
+     * Given a normalized username, it returns only the User's id and hashed password.
+     * @param normalizedUsername - Username associated with the User object, already run through User.normalizeUsername
+     * @return one set of credentials in a list if found, otherwise an empty list.
+     */
+    List<UserCredentials> findCredentialsByNormalizedUsername(String normalizedUsername);
+
+    /**
+     * Given a normalized username, determine if a User already has it.
+     * @param normalizedUsername - Username associated with the User object, already run through User.normalizeUsername
+     * @return true if the username is taken, false otherwise
+     */
+    boolean existsByNormalizedUsername(String normalizedUsername);
+
+    /**
+     * Given a batch of normalized usernames, returns the ones that are already taken.
+     * @param normalizedUsernames - Usernames already run through User.normalizeUsername
+     * @return the usernames from the batch that a User already has
+     */
+    @Query("select u.normalizedUsername from User u where u.normalizedUsername in :normalizedUsernames")
+    List<String> findExistingNormalizedUsernames(@Param("normalizedUsernames") Collection<String> normalizedUsernames);
+
+    /**
+     * Replaces a User's hashed password without loading the User first.
+     * @param id - Id of the User
+     * @param hashedPassword - New hashed password
+     * @return the number of rows updated
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.hashedPassword = :hashedPassword where u.id = :id")
+    int updateHashedPassword(@Param("id") Integer id, @Param("hashedPassword") String hashedPassword);
+
+    /**
+     * Deletes the User with a normalized username in one statement, without loading it first.
+     * @param normalizedUsername - Username associated with the User object, already run through User.normalizeUsername
+     * @return the number of users deleted
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from User u where u.normalizedUsername = :normalizedUsername")
+    int deleteByNormalizedUsername(@Param("normalizedUsername") String normalizedUsername);
+
+    /**
+     * Deletes a batch of users in one statement.
+     * @param ids - Ids of the users
+     * @return the number of users deleted
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from User u where u.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Records when a User was last active. The version is left alone, activity is not an edit to the user.
+     * @param id - Id of the User
+     * @param lastActiveAt - Time of the activity
+     * @return the number of rows updated
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.lastActiveAt = :lastActiveAt where u.id = :id")
+    int updateLastActiveAt(@Param("id") Integer id, @Param("lastActiveAt") Instant lastActiveAt);
+
+    /**
+     * Records the same activity time for a batch of users.
+     * @param ids - Ids of the users
+     * @param lastActiveAt - Time of the activity
+     * @return the number of rows updated
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.lastActiveAt = :lastActiveAt where u.id in :ids")
+    int updateLastActiveAt(@Param("ids") Collection<Integer> ids, @Param("lastActiveAt") Instant lastActiveAt);
+
+    /**
+     * Returns the next batch of users with no recorded activity.
+     * @param pageable - Limits how many users are returned
+     * @return ids of the users
+     */
+    @Query("select u.id from User u where u.lastActiveAt is null")
+    List<Integer> findIdsWithoutLastActiveAt(Pageable pageable);
+
+    /**
+     * Returns the next batch of users that have not been active since a cutoff, least recently active first.
+     * @param cutoff - Users active before this time are returned
+     * @param pageable - Limits how many users are returned
+     * @return the users' ids and normalized usernames
+     */
+    List<UserKey> findByLastActiveAtBeforeOrderByLastActiveAtAsc(Instant cutoff, Pageable pageable);
+
+    /**
+     * Returns the next page of users in id order. Seeking past the last id seen means every page costs the same,
+     * unlike an offset that has to skip over all the earlier pages.
+     * @param afterId - Only users with a larger id are returned, 0 for the first page
+     * @param pageable - Limits how many users are returned, only its page size is used
+     * @return summaries of the users on the page
+     */
+    @Query("select new edu.carroll.ifa.jpa.repo.UserSummary(u.id, u.username, u.firstName, u.lastName, u.age) " +
+           "from User u where u.id > :afterId order by u.id")
+    List<UserSummary> findSummariesAfterId(@Param("afterId") int afterId, Pageable pageable);
+
+    /**
+     * Returns the next page of users whose last name starts with a prefix, ordered by last name and then id.
+     * @param prefix - LIKE pattern for the start of the last name, with !, % and _ escaped by a !
+     * @param afterName - Last name of the final user on the previous page, "" for the first page
+     * @param afterId - Id of the final user on the previous page, 0 for the first page
+     * @param pageable - Limits how many users are returned, only its page size is used
+     * @return summaries of the users on the page
+     */
+    @Query("select new edu.carroll.ifa.jpa.repo.UserSummary(u.id, u.username, u.firstName, u.lastName, u.age) " +
+           "from User u where u.lastName like :prefix escape '!' " +
+           "and (u.lastName > :afterName or (u.lastName = :afterName and u.id > :afterId)) " +
+           "order by u.lastName, u.id")
+    List<UserSummary> findSummariesByLastNamePrefix(@Param("prefix") String prefix, @Param("afterName") String afterName,
+                                                    @Param("afterId") int afterId, Pageable pageable);
+
+    /**
+     * Returns the next page of users whose first name starts with a prefix, ordered by first name and then id.
+     * @param prefix - LIKE pattern for the start of the first name, with !, % and _ escaped by a !
+     * @param afterName - First name of the final user on the previous page, "" for the first page
+     * @param afterId - Id of the final user on the previous page, 0 for the first page
+     * @param pageable - Limits how many users are returned, only its page size is used
+     * @return summaries of the users on the page
+     */
+    @Query("select new edu.carroll.ifa.jpa.repo.UserSummary(u.id, u.username, u.firstName, u.lastName, u.age) " +
+           "from User u where u.firstName like :prefix escape '!' " +
+           "and (u.firstName > :afterName or (u.firstName = :afterName and u.id > :afterId)) " +
+           "order by u.firstName, u.id")
+    List<UserSummary> findSummariesByFirstNamePrefix(@Param("prefix") String prefix, @Param("afterName") String afterName,
+                                                     @Param("afterId") int afterId, Pageable pageable);
+
+    /**
+     * Streams every User in id order over a forward-only cursor, fetching EXPORT_FETCH_SIZE rows per round trip.
+     * The stream must be consumed and closed inside a transaction. The users are loaded read-only, so callers should
+     * detach each one once they are done with it to keep the persistence context from growing.
+     * @return stream of all users
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAllOrderById();
 }
@@ -0,0 +1,12 @@
+package edu.carroll.ifa.jpa.repo;
+
+/**
+ * Projection of the User entity with what the admin member list shows, leaving out the password hash.
+ * @param id - Id of the user
+ * @param username - Username of the user
+ * @param firstName - First name of the user
+ * @param lastName - Last name of the user
+ * @param age - Age of the user
+ */
+public record UserSummary(Integer id, String username, String firstName, String lastName, Integer age) {
+}
@@ -0,0 +1,32 @@
+package edu.carroll.ifa.jpa.stats;
+
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands Hibernate the connections of the application's data source wrapped by a SlowQueryLog, so every statement
+ * Hibernate runs is timed. The data source itself comes from the Hibernate settings as it would without this class.
+ */
+public class SlowQueryConnectionProvider extends DatasourceConnectionProviderImpl {
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * Constructs a SlowQueryConnectionProvider with the log that times the statements.
+     * @param slowQueryLog - SlowQueryLog that wraps each connection
+     */
+    public SlowQueryConnectionProvider(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Gets a connection from the data source and wraps it.
+     * @return the wrapped connection
+     * @throws SQLException if the data source fails
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return slowQueryLog.wrap(super.getConnection());
+    }
+}
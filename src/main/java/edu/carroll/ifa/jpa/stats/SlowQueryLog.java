@@ -0,0 +1,177 @@
+package edu.carroll.ifa.jpa.stats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every JDBC statement and batch run on the connections it wraps, and logs the ones slower than the threshold with
+ * their SQL and the service method that caused them. Each wrapped statement keeps the SQL it was prepared with, so a
+ * batch is logged with its own SQL even when other statements were prepared after it. Working out the calling method
+ * walks the stack, so it is only done for statements that were slow.
+ */
+public class SlowQueryLog {
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final String APPLICATION_PACKAGE = "edu.carroll.ifa.";
+    private static final String SERVICE_PACKAGE = "edu.carroll.ifa.service.";
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+
+    private final long thresholdNanos;
+
+    /**
+     * Constructs a SlowQueryLog with how slow a statement must be before it is logged.
+     * @param thresholdMs - Threshold in milliseconds, negative to turn slow query logging off
+     */
+    public SlowQueryLog(long thresholdMs) {
+        this.thresholdNanos = thresholdMs < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+    }
+
+    /**
+     * Returns whether slow statements are logged at all.
+     * @return true unless the threshold is negative
+     */
+    public boolean isEnabled() {
+        return thresholdNanos >= 0;
+    }
+
+    /**
+     * Given a connection, returns one that times the statements created from it.
+     * @param connection - Connection to wrap
+     * @return the wrapped connection, or the same connection if the log is turned off
+     */
+    public Connection wrap(Connection connection) {
+        if (!isEnabled()) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    /**
+     * Logs a statement that was slower than the threshold.
+     * @param kind - "statement" or "batch"
+     * @param sql - SQL that was run
+     * @param elapsedNanos - How long it took
+     */
+    void report(String kind, String sql, long elapsedNanos) {
+        logger.warn("slow {}: {} ms in {}: {}", kind, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), callingServiceMethod(), sql);
+    }
+
+    private void check(String kind, String sql, long start) {
+        final long elapsed = System.nanoTime() - start;
+        if (elapsed >= thresholdNanos) {
+            report(kind, sql, elapsed);
+        }
+    }
+
+    /**
+     * Finds the service method the statement was run for. That is the outermost of the service calls around the
+     * repository call, so a private helper reports the public method that called it. The search stops at the first
+     * application class outside the service package, such as the controller.
+     * @return the class and method, such as UserServiceImpl.validateUser, or "unknown" outside of a service
+     */
+    static String callingServiceMethod() {
+        return stackWalker.walk(frames -> {
+            StackWalker.StackFrame caller = null;
+            for (Iterator<StackWalker.StackFrame> it = frames.iterator(); it.hasNext(); ) {
+                final StackWalker.StackFrame frame = it.next();
+                final String className = frame.getClassName();
+                if (className.startsWith(SERVICE_PACKAGE)) {
+                    // skip the lambdas services pass to helpers like ReadYourWrites
+                    if (!className.contains("$$") && !frame.getMethodName().startsWith("lambda$")) {
+                        caller = frame;
+                    }
+                } else if (caller != null && className.startsWith(APPLICATION_PACKAGE)) {
+                    break;
+                }
+            }
+            return caller == null ? "unknown"
+                    : caller.getClassName().substring(SERVICE_PACKAGE.length()) + "." + caller.getMethodName();
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Wraps the statements a connection creates, remembering the SQL each one was prepared with.
+     */
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final Object result = SlowQueryLog.invoke(target, method, args);
+            if (!(result instanceof Statement statement)) {
+                return result;
+            }
+            // prepareStatement and prepareCall take the SQL first, createStatement gets it when executed
+            final String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+            final Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    /**
+     * Times the executions of one statement.
+     */
+    private class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        // SQL added to a plain statement's batch, a prepared statement's batch is all preparedSql
+        private final List<String> batchSql = new ArrayList<>();
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String name = method.getName();
+            if (name.equals("addBatch") && args != null && args[0] instanceof String sql) {
+                batchSql.add(sql);
+            } else if (name.equals("clearBatch")) {
+                batchSql.clear();
+            }
+            if (!name.startsWith("execute")) {
+                return SlowQueryLog.invoke(target, method, args);
+            }
+            final boolean batch = name.endsWith("Batch");
+            final String sql = args != null && args.length > 0 && args[0] instanceof String executed ? executed
+                    : batch && preparedSql == null ? String.join("; ", batchSql) : preparedSql;
+            if (batch) {
+                batchSql.clear();
+            }
+            final long start = System.nanoTime();
+            try {
+                return SlowQueryLog.invoke(target, method, args);
+            } finally {
+                check(batch ? "batch" : "statement", sql, start);
+            }
+        }
+    }
+}
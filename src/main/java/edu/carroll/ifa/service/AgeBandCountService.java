@@ -0,0 +1,45 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.AgeBand;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Interface for the age band count service, which keeps the number of members in each age band up to date.
+ * The record methods should run in the same transaction as the user change they record, so both commit or neither
+ * does.
+ */
+public interface AgeBandCountService {
+
+    /**
+     * Counts newly saved users in their age bands.
+     * @param ages - Ages of the users saved
+     */
+    void recordAdded(Collection<Integer> ages);
+
+    /**
+     * Takes deleted users out of their age bands' counts.
+     * @param ages - Ages of the users deleted
+     */
+    void recordRemoved(Collection<Integer> ages);
+
+    /**
+     * Moves a user whose age changed to its new band, if the band changed.
+     * @param oldAge - Age before the change
+     * @param newAge - Age after the change
+     */
+    void recordAgeChange(int oldAge, int newAge);
+
+    /**
+     * Returns the number of members in each band, read from the counters rather than counted.
+     * @return member count for every band, in band order
+     */
+    Map<AgeBand, Long> getCounts();
+
+    /**
+     * Recounts every band from the user table and corrects the counters that drifted.
+     * @return the corrected member count for every band, in band order
+     */
+    Map<AgeBand, Long> reconcile();
+}
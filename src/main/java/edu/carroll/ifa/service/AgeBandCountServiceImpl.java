@@ -0,0 +1,157 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.AgeBand;
+import edu.carroll.ifa.jpa.model.AgeBandCount;
+import edu.carroll.ifa.jpa.repo.AgeBandCountRepository;
+import edu.carroll.ifa.jpa.repo.AgeCount;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * This class keeps one counter row per age band. Every user change adds to or subtracts from the rows in the database
+ * with a single UPDATE, so nodes never overwrite each other's changes, and reading the counts is a few primary key
+ * rows however many members there are. The reconcile job corrects drift from changes made outside the application.
+ */
+@Service
+public class AgeBandCountServiceImpl implements AgeBandCountService {
+    private static final Logger logger = LoggerFactory.getLogger(AgeBandCountServiceImpl.class);
+    private final AgeBandCountRepository countRepo;
+    private final UserRepository userRepo;
+
+    /**
+     * Constructs an AgeBandCountServiceImpl instance with the repositories.
+     * @param countRepo - AgeBandCountRepository holding the counters
+     * @param userRepo - UserRepository the counters are reconciled against
+     */
+    public AgeBandCountServiceImpl(AgeBandCountRepository countRepo, UserRepository userRepo) {
+        this.countRepo = countRepo;
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * Counts newly saved users in their age bands.
+     * @param ages - Ages of the users saved
+     */
+    @Override
+    @Transactional
+    public void recordAdded(Collection<Integer> ages) {
+        apply(deltas(ages, 1));
+    }
+
+    /**
+     * Takes deleted users out of their age bands' counts.
+     * @param ages - Ages of the users deleted
+     */
+    @Override
+    @Transactional
+    public void recordRemoved(Collection<Integer> ages) {
+        apply(deltas(ages, -1));
+    }
+
+    /**
+     * Moves a user whose age changed to its new band, if the band changed.
+     * @param oldAge - Age before the change
+     * @param newAge - Age after the change
+     */
+    @Override
+    @Transactional
+    public void recordAgeChange(int oldAge, int newAge) {
+        final AgeBand oldBand = AgeBand.of(oldAge);
+        final AgeBand newBand = AgeBand.of(newAge);
+        if (oldBand == newBand) {
+            return;
+        }
+        final Map<AgeBand, Long> deltas = new EnumMap<>(AgeBand.class);
+        deltas.put(oldBand, -1L);
+        deltas.put(newBand, 1L);
+        apply(deltas);
+    }
+
+    /**
+     * Returns the number of members in each band, read from the counters rather than counted.
+     * @return member count for every band, in band order
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<AgeBand, Long> getCounts() {
+        final Map<AgeBand, Long> counts = emptyCounts();
+        for (AgeBandCount count : countRepo.findAll()) {
+            counts.put(count.getBand(), count.getMemberCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Runs reconcile on the configured schedule. With the default cron of "-" it never runs on its own.
+     */
+    @Scheduled(cron = "${ifa.age-bands.reconcile-cron:-}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Recounts every band from the user table and corrects the counters that drifted. The counter rows stay locked
+     * while the users are counted, so changes made in the meantime wait and are added on top of the recount.
+     * @return the corrected member count for every band, in band order
+     */
+    @Override
+    @Transactional
+    public Map<AgeBand, Long> reconcile() {
+        final Map<AgeBand, AgeBandCount> rows = new EnumMap<>(AgeBand.class);
+        for (AgeBandCount row : countRepo.findAllForUpdate()) {
+            rows.put(row.getBand(), row);
+        }
+        final Map<AgeBand, Long> actual = emptyCounts();
+        for (AgeCount ageCount : userRepo.countByAge()) {
+            actual.merge(AgeBand.of(ageCount.age()), ageCount.members(), Long::sum);
+        }
+        for (Map.Entry<AgeBand, Long> entry : actual.entrySet()) {
+            final AgeBandCount row = rows.get(entry.getKey());
+            if (row == null) {
+                countRepo.save(new AgeBandCount(entry.getKey(), entry.getValue()));
+            } else if (row.getMemberCount() != entry.getValue()) {
+                logger.warn("reconcile: {} count was {}, corrected to {}", entry.getKey(), row.getMemberCount(), entry.getValue());
+                row.setMemberCount(entry.getValue());
+            }
+        }
+        logger.info("reconcile: age band counts are {}", actual);
+        return actual;
+    }
+
+    private void apply(Map<AgeBand, Long> deltas) {
+        // EnumMap goes in band order, the same order findAllForUpdate locks the rows in, so two transactions never
+        // deadlock over the counter rows
+        for (Map.Entry<AgeBand, Long> entry : deltas.entrySet()) {
+            if (entry.getValue() != 0 && countRepo.addToCount(entry.getKey(), entry.getValue()) == 0) {
+                // the next reconcile creates the row with the right count
+                logger.warn("apply: no counter row for {}", entry.getKey());
+            }
+        }
+    }
+
+    private static Map<AgeBand, Long> deltas(Collection<Integer> ages, long sign) {
+        final Map<AgeBand, Long> deltas = new EnumMap<>(AgeBand.class);
+        for (Integer age : ages) {
+            if (age != null) {
+                deltas.merge(AgeBand.of(age), sign, Long::sum);
+            }
+        }
+        return deltas;
+    }
+
+    private static Map<AgeBand, Long> emptyCounts() {
+        final Map<AgeBand, Long> counts = new EnumMap<>(AgeBand.class);
+        for (AgeBand band : AgeBand.values()) {
+            counts.put(band, 0L);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,76 @@
+package edu.carroll.ifa.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class reads and writes single lines of comma separated values. Fields may be wrapped in double quotes so they
+ * can contain commas, and a doubled quote inside a quoted field is read as one quote. Fields cannot span lines.
+ */
+public final class Csv {
+    private Csv() {
+    }
+
+    /**
+     * Splits one line of a CSV file into its fields.
+     * @param line - Line of the file, without the line break
+     * @return the fields of the line, in order
+     * @throws IllegalArgumentException if a quoted field is never closed. The message only gives the position, since
+     * lines can hold passwords
+     */
+    public static List<String> parseLine(String line) {
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int quoteStart = 0;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    // "" inside a quoted field is a literal quote
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                quoteStart = i;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unclosed quote starting at character " + (quoteStart + 1));
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Joins fields into one line of a CSV file, quoting the fields that need it.
+     * @param fields - Fields of the line, null is written as an empty field
+     * @return the line, without a line break
+     */
+    public static String formatLine(Object... fields) {
+        final StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            final String field = fields[i] == null ? "" : fields[i].toString();
+            if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+                line.append(field);
+            } else {
+                // line breaks can't be read back, so they are flattened to spaces
+                line.append('"').append(field.replace("\"", "\"\"").replace('\r', ' ').replace('\n', ' ')).append('"');
+            }
+        }
+        return line.toString();
+    }
+}
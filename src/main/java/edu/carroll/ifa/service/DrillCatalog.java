@@ -0,0 +1,147 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.Drill;
+import edu.carroll.ifa.jpa.repo.DrillRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class holds the drills in memory, indexed by age. Every age from 1 up to UserService.TOO_OLD_AGE has a slot in
+ * an array pointing at its DrillSet, so picking the drills for a player is one array read. A reload builds a whole new
+ * index from the drill table and swaps it in at once, so readers see either the old catalog or the new one and never
+ * a mix, and drill changes show up without a redeploy.
+ */
+@Component
+public class DrillCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(DrillCatalog.class);
+    private static final int OLDEST_AGE = UserService.TOO_OLD_AGE - 1;
+
+    private final DrillRepository drillRepo;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(index(List.of()), Instant.EPOCH, 0));
+
+    /**
+     * Constructs a DrillCatalog instance with the DrillRepository.
+     * @param drillRepo - DrillRepository the drills are loaded from
+     */
+    public DrillCatalog(DrillRepository drillRepo) {
+        this.drillRepo = drillRepo;
+    }
+
+    /**
+     * Given an age, returns the drills for it.
+     * @param age - Age of the player
+     * @return the drills for the age, DrillSet.EMPTY if there are none or the age is not valid
+     */
+    public DrillSet drillsFor(int age) {
+        final DrillSet[] byAge = snapshot.get().byAge();
+        return age > 0 && age < byAge.length ? byAge[age] : DrillSet.EMPTY;
+    }
+
+    /**
+     * Returns every distinct drill set in the catalog, youngest ages first.
+     * @return the drill sets, without the empty set
+     */
+    public List<DrillSet> getDrillSets() {
+        return Arrays.stream(snapshot.get().byAge()).distinct().filter(set -> !set.isEmpty()).toList();
+    }
+
+    /**
+     * Returns when the catalog in use was loaded.
+     * @return load time, the epoch if nothing has been loaded yet
+     */
+    public Instant getLoadedAt() {
+        return snapshot.get().loadedAt();
+    }
+
+    /**
+     * Returns the version of the catalog's content. It goes up every time a reload finds the drills changed, and stays
+     * the same when a reload finds nothing new, so anything built from the drills can tell when it is out of date.
+     * @return content version
+     */
+    public long getVersion() {
+        return snapshot.get().version();
+    }
+
+    /**
+     * Runs reload at startup and then every ifa.drills.reload-ms. If the drills can't be read the catalog already in
+     * use is kept until the next try.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${ifa.drills.reload-ms:60000}", initialDelayString = "${ifa.drills.reload-ms:60000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (DataAccessException e) {
+            logger.warn("scheduledReload: could not load the drills, keeping the catalog loaded at {}", getLoadedAt(), e);
+        }
+    }
+
+    /**
+     * Loads the drills from the database and swaps them in.
+     * @return the number of drills loaded
+     */
+    public synchronized int reload() {
+        final List<Drill> drills = drillRepo.findAllByOrderBySortOrderAscIdAsc();
+        final DrillSet[] byAge = index(drills);
+        final Snapshot current = snapshot.get();
+        final boolean changed = !Arrays.equals(current.byAge(), byAge);
+        snapshot.set(new Snapshot(byAge, Instant.now(), changed ? current.version() + 1 : current.version()));
+        logger.debug("reload: loaded {} drills", drills.size());
+        return drills.size();
+    }
+
+    /**
+     * Builds the age index. Consecutive ages with the same drills share one DrillSet.
+     * @param drills - Drills in the order they are listed
+     * @return array with the drill set for every age at its index, index 0 is not a valid age
+     */
+    static DrillSet[] index(List<Drill> drills) {
+        final DrillSet[] byAge = new DrillSet[OLDEST_AGE + 1];
+        byAge[0] = DrillSet.EMPTY;
+        int runStart = 1;
+        List<DrillSet.Item> runItems = itemsFor(drills, 1);
+        for (int age = 2; age <= OLDEST_AGE + 1; age++) {
+            final List<DrillSet.Item> items = age <= OLDEST_AGE ? itemsFor(drills, age) : null;
+            if (!runItems.equals(items)) {
+                final DrillSet set = runItems.isEmpty() ? DrillSet.EMPTY : drillSet(runStart, age - 1, runItems);
+                Arrays.fill(byAge, runStart, age, set);
+                runStart = age;
+                runItems = items;
+            }
+        }
+        return byAge;
+    }
+
+    private static List<DrillSet.Item> itemsFor(List<Drill> drills, int age) {
+        final List<DrillSet.Item> items = new ArrayList<>();
+        for (Drill drill : drills) {
+            if (drill.isFor(age)) {
+                items.add(new DrillSet.Item(drill.getName(), drill.getDescription()));
+            }
+        }
+        return List.copyOf(items);
+    }
+
+    private static DrillSet drillSet(int fromAge, int toAge, List<DrillSet.Item> items) {
+        if (toAge == OLDEST_AGE) {
+            return new DrillSet(fromAge + "+", "Age " + fromAge + "+", items);
+        }
+        if (fromAge == toAge) {
+            return new DrillSet(String.valueOf(fromAge), "Age " + fromAge, items);
+        }
+        return new DrillSet(fromAge + "-" + toAge, "Ages " + fromAge + "-" + toAge, items);
+    }
+
+    private record Snapshot(DrillSet[] byAge, Instant loadedAt, long version) {
+    }
+}
@@ -0,0 +1,33 @@
+package edu.carroll.ifa.service;
+
+import java.util.List;
+
+/**
+ * The drills for a run of consecutive ages that all get the same drills. Instances are immutable and shared by every
+ * age in the run, so they can be handed to any number of requests.
+ * @param key - Identifies the set within one catalog load, such as "5-8"
+ * @param label - Heading for the drills page, such as "Ages 5-8"
+ * @param drills - Drills in the order they are listed, empty if the ages have none
+ */
+public record DrillSet(String key, String label, List<Item> drills) {
+    /**
+     * Set returned for ages outside of the catalog, with no drills.
+     */
+    public static final DrillSet EMPTY = new DrillSet("none", "", List.of());
+
+    /**
+     * One drill in the set.
+     * @param name - Name of the drill, such as Juggles
+     * @param description - What the player should do
+     */
+    public record Item(String name, String description) {
+    }
+
+    /**
+     * Returns whether the set has any drills.
+     * @return true if there are no drills for these ages, false otherwise
+     */
+    public boolean isEmpty() {
+        return drills.isEmpty();
+    }
+}
@@ -0,0 +1,220 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.AgeBand;
+import edu.carroll.ifa.jpa.model.JuggleRecord;
+import edu.carroll.ifa.jpa.repo.JuggleRecordRepository;
+import edu.carroll.ifa.jpa.repo.JuggleScore;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class keeps a juggling leaderboard per age band in memory, so showing the top players or a player's rank never
+ * sorts the records in the database. The boards are built from the juggle_record table at startup and every night,
+ * and kept up to date as drills are logged. Changes made in a transaction reach the boards once it commits, so the
+ * boards never show a record that was rolled back.
+ */
+@Component
+public class JuggleLeaderboard {
+    private static final Logger logger = LoggerFactory.getLogger(JuggleLeaderboard.class);
+
+    private final JuggleRecordRepository recordRepo;
+    private final UserRepository userRepo;
+    private volatile Boards boards = new Boards();
+
+    /**
+     * Constructs a JuggleLeaderboard with the repositories the records are kept in.
+     * @param recordRepo - JuggleRecordRepository holding each player's best
+     * @param userRepo - UserRepository the records' users are referenced through
+     */
+    public JuggleLeaderboard(JuggleRecordRepository recordRepo, UserRepository userRepo) {
+        this.recordRepo = recordRepo;
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * Builds the boards at startup and on the schedule set by ifa.leaderboards.rebuild-cron, which corrects changes
+     * made outside the application. If the records can't be read the current boards are kept.
+     */
+    @PostConstruct
+    @Scheduled(cron = "${ifa.leaderboards.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            logger.warn("scheduledRebuild: could not read the juggling records, keeping the current leaderboards", e);
+        }
+    }
+
+    /**
+     * Builds every board again from the juggling records.
+     * @return the number of players on the boards
+     */
+    public synchronized int rebuild() {
+        final Boards rebuilt = new Boards();
+        final List<JuggleScore> scores = recordRepo.findAllScores();
+        for (JuggleScore score : scores) {
+            rebuilt.put(score);
+        }
+        boards = rebuilt;
+        logger.info("rebuild: loaded {} juggling records", scores.size());
+        return scores.size();
+    }
+
+    /**
+     * Saves the juggles in newly logged drills as records where they beat the player's best, in the caller's
+     * transaction. The boards are updated once the transaction commits.
+     * @param entries - Drills just logged
+     */
+    public void recordJuggles(Collection<TrainingLogEntry> entries) {
+        // only the best of the batch can be a record
+        final Map<Integer, TrainingLogEntry> best = new HashMap<>();
+        for (TrainingLogEntry entry : entries) {
+            if (entry.juggles() != null && entry.juggles() > 0) {
+                best.merge(entry.userId(), entry, (a, b) -> b.juggles() > a.juggles() ? b : a);
+            }
+        }
+        if (best.isEmpty()) {
+            return;
+        }
+        final Set<Integer> withRecord = new HashSet<>(recordRepo.findUserIdsWithRecord(best.keySet()));
+        for (TrainingLogEntry entry : best.values()) {
+            if (withRecord.contains(entry.userId())) {
+                recordRepo.raiseBest(entry.userId(), entry.juggles(), entry.loggedAt());
+            } else {
+                recordRepo.save(new JuggleRecord(userRepo.getReferenceById(entry.userId()), entry.juggles(), entry.loggedAt()));
+            }
+        }
+        final List<JuggleScore> scores = recordRepo.findScoresByUserIdIn(best.keySet());
+        afterCommit(() -> apply(scores));
+    }
+
+    /**
+     * Moves a player whose age changed to the board for their new age, once the caller's transaction commits.
+     * @param userId - Id of the user
+     * @param newAge - Age after the change
+     */
+    public void recordAgeChange(int userId, int newAge) {
+        afterCommit(() -> move(userId, AgeBand.of(newAge)));
+    }
+
+    /**
+     * Takes deleted players off the boards, once the caller's transaction commits.
+     * @param userIds - Ids of the users deleted
+     */
+    public void recordRemoved(Collection<Integer> userIds) {
+        afterCommit(() -> remove(userIds));
+    }
+
+    /**
+     * Returns the best players of an age band, best first.
+     * @param band - Age band of the board
+     * @param limit - Most players to return
+     * @return up to limit entries
+     */
+    public List<LeaderboardEntry> top(AgeBand band, int limit) {
+        return boards.byBand.get(band).top(limit);
+    }
+
+    /**
+     * Returns where a player stands on the board for their age band.
+     * @param userId - Id of the user
+     * @return the player's standing, null if they have no juggling record
+     */
+    public Standing standingOf(int userId) {
+        final Boards current = boards;
+        final AgeBand band = current.bandOf.get(userId);
+        if (band == null) {
+            return null;
+        }
+        final RankedScores board = current.byBand.get(band);
+        final LeaderboardEntry entry = board.get(userId);
+        // the player may have just moved to another board
+        return entry == null ? null : new Standing(band, board.rankOf(userId), board.size(), entry);
+    }
+
+    private synchronized void apply(List<JuggleScore> scores) {
+        for (JuggleScore score : scores) {
+            boards.put(score);
+        }
+    }
+
+    private synchronized void move(int userId, AgeBand band) {
+        final Boards current = boards;
+        final AgeBand oldBand = current.bandOf.get(userId);
+        if (oldBand == null || oldBand == band) {
+            return;
+        }
+        final LeaderboardEntry entry = current.byBand.get(oldBand).remove(userId);
+        current.bandOf.put(userId, band);
+        current.byBand.get(band).put(entry);
+    }
+
+    private synchronized void remove(Collection<Integer> userIds) {
+        final Boards current = boards;
+        for (Integer userId : userIds) {
+            final AgeBand band = current.bandOf.remove(userId);
+            if (band != null) {
+                current.byBand.get(band).remove(userId);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * Where a player stands on their age band's board.
+     * @param band - Age band of the board
+     * @param rank - Player's rank, players with the same juggles share one
+     * @param players - Number of players on the board
+     * @param entry - Player's entry
+     */
+    public record Standing(AgeBand band, int rank, int players, LeaderboardEntry entry) {
+    }
+
+    private static final class Boards {
+        private final Map<AgeBand, RankedScores> byBand = new EnumMap<>(AgeBand.class);
+        private final Map<Integer, AgeBand> bandOf = new ConcurrentHashMap<>();
+
+        private Boards() {
+            for (AgeBand band : AgeBand.values()) {
+                byBand.put(band, new RankedScores());
+            }
+        }
+
+        private void put(JuggleScore score) {
+            final AgeBand band = AgeBand.of(score.age());
+            final AgeBand oldBand = bandOf.put(score.userId(), band);
+            if (oldBand != null && oldBand != band) {
+                byBand.get(oldBand).remove(score.userId());
+            }
+            byBand.get(band).put(new LeaderboardEntry(score.userId(), score.username(), score.juggles(), score.achievedAt()));
+        }
+    }
+}
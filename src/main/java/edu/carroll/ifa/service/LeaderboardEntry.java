@@ -0,0 +1,13 @@
+package edu.carroll.ifa.service;
+
+import java.time.Instant;
+
+/**
+ * A player's place on a juggling leaderboard.
+ * @param userId - Id of the user
+ * @param username - Username shown on the leaderboard
+ * @param juggles - Most juggles the user has logged
+ * @param achievedAt - When the record was set, the earlier record goes first on a tie
+ */
+public record LeaderboardEntry(int userId, String username, int juggles, Instant achievedAt) {
+}
@@ -0,0 +1,327 @@
+package edu.carroll.ifa.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * This class runs all BCrypt work (hashing and verifying passwords) on a dedicated, bounded thread pool so that a burst
+ * of logins cannot tie up every request thread with CPU work. When the queue is full new work is rejected right away
+ * instead of piling up behind the burst.
+ * The BCrypt work factor is either fixed by configuration or calibrated at startup so that one hash takes roughly the
+ * configured latency budget on this machine.
+ */
+@Component
+public class PasswordHasher {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    // a bulk job retries a password the pool turned away this many times, pausing a little longer each time
+    private static final int BULK_RETRIES = 10;
+    private static final long BULK_RETRY_PAUSE_MS = 100;
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long awaitTimeoutMs;
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder startedCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder workNanos = new LongAdder();
+
+    /**
+     * Constructs a PasswordHasher with a fixed size pool and a bounded queue.
+     * @param poolSize - Number of hashing threads, 0 means one thread per available core
+     * @param queueCapacity - Number of hashing requests that may wait for a free thread before new ones are rejected
+     * @param awaitTimeoutMs - How long a caller waits for its hashing request to finish before giving up
+     * @param strength - BCrypt work factor to use, 0 means calibrate it against targetMs at startup
+     * @param targetMs - Latency budget for a single hash when calibrating
+     * @param minStrength - Lowest work factor calibration may pick
+     * @param maxStrength - Highest work factor calibration may pick
+     */
+    public PasswordHasher(@Value("${ifa.hashing.pool-size:0}") int poolSize,
+                          @Value("${ifa.hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${ifa.hashing.await-timeout-ms:5000}") long awaitTimeoutMs,
+                          @Value("${ifa.hashing.strength:0}") int strength,
+                          @Value("${ifa.hashing.target-ms:250}") long targetMs,
+                          @Value("${ifa.hashing.min-strength:10}") int minStrength,
+                          @Value("${ifa.hashing.max-strength:14}") int maxStrength) {
+        this.strength = strength > 0 ? strength : calibrateStrength(targetMs, minStrength, maxStrength);
+        this.passwordEncoder = new BCryptPasswordEncoder(this.strength);
+        final int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.awaitTimeoutMs = awaitTimeoutMs;
+        logger.info("PasswordHasher: started {} hashing threads with a queue of {} at strength {}", threads, queueCapacity, this.strength);
+    }
+
+    /**
+     * Finds the highest BCrypt work factor whose hash time still fits in the latency budget on this machine.
+     * @param targetMs - Latency budget for a single hash
+     * @param minStrength - Lowest work factor to return, even if it is slower than the budget
+     * @param maxStrength - Highest work factor to return
+     * @return the calibrated work factor
+     */
+    static int calibrateStrength(long targetMs, int minStrength, int maxStrength) {
+        // warm up once so the JIT does not make the first measurement look slow
+        new BCryptPasswordEncoder(minStrength).encode(CALIBRATION_PASSWORD);
+        int strength = minStrength;
+        long elapsedMs = timeEncode(strength);
+        // every step up in strength doubles the work, so keep going while the next step still fits the budget
+        while (strength < maxStrength && elapsedMs * 2 <= targetMs) {
+            strength++;
+            elapsedMs = timeEncode(strength);
+        }
+        logger.info("calibrateStrength: picked strength {} ({} ms per hash, budget {} ms)", strength, elapsedMs, targetMs);
+        return strength;
+    }
+
+    private static long timeEncode(int strength) {
+        final long start = System.nanoTime();
+        new BCryptPasswordEncoder(strength).encode(CALIBRATION_PASSWORD);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Hashes the raw password on the hashing pool and waits for the result.
+     * @param rawPassword - Raw password provided by the user
+     * @return the BCrypt hash of the raw password
+     * @throws RejectedExecutionException if the hashing pool is saturated or the request timed out
+     */
+    public String encode(String rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    /**
+     * Hashes the raw password on the hashing pool without waiting for the result.
+     * @param rawPassword - Raw password provided by the user
+     * @return a future that completes with the BCrypt hash of the raw password
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Hashes a batch of raw passwords on the hashing pool and waits for the results. This is meant for bulk jobs like
+     * imports, so it only queues one password per hashing thread at a time and leaves the rest of the queue to logins.
+     * A password the pool turns away is tried again after a pause, so a burst of logins slows the job down instead of
+     * failing it.
+     * @param rawPasswords - Raw passwords to hash
+     * @return the BCrypt hashes, in the same order as the raw passwords
+     * @throws RejectedExecutionException if a password was still turned away after every retry
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        final List<String> hashes = new ArrayList<>(rawPasswords.size());
+        final int window = getPoolSize();
+        for (int from = 0; from < rawPasswords.size(); from += window) {
+            final List<String> chunk = rawPasswords.subList(from, Math.min(rawPasswords.size(), from + window));
+            final List<CompletableFuture<String>> futures = chunk.stream().map(this::encodeAsync).toList();
+            for (int i = 0; i < chunk.size(); i++) {
+                hashes.add(awaitRetrying(futures.get(i), chunk.get(i)));
+            }
+        }
+        return hashes;
+    }
+
+    private String awaitRetrying(CompletableFuture<String> first, String rawPassword) {
+        CompletableFuture<String> future = first;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return await(future);
+            } catch (RejectedExecutionException e) {
+                if (attempt > BULK_RETRIES) {
+                    throw e;
+                }
+            }
+            try {
+                Thread.sleep(BULK_RETRY_PAUSE_MS * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted waiting for the hashing pool", e);
+            }
+            future = encodeAsync(rawPassword);
+        }
+    }
+
+    /**
+     * Given a hashed password that has already been matched, determine if it was hashed with a lower work factor
+     * than the one this node uses. Stronger hashes are left alone so nodes with different calibrations don't keep
+     * re-hashing each other's passwords.
+     * @param hashedPassword - Hashed password stored in the database
+     * @return true if the password should be hashed again, false otherwise
+     */
+    public boolean needsRehash(String hashedPassword) {
+        return passwordEncoder.upgradeEncoding(hashedPassword);
+    }
+
+    /**
+     * Returns the BCrypt work factor used for new hashes.
+     * @return strength
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Checks the raw password against the hashed password on the hashing pool and waits for the result.
+     * @param rawPassword - Raw password provided by the user
+     * @param hashedPassword - Hashed password stored in the database
+     * @return true if the passwords match, false otherwise
+     * @throws RejectedExecutionException if the hashing pool is saturated or the request timed out
+     */
+    public boolean matches(String rawPassword, String hashedPassword) {
+        return await(matchesAsync(rawPassword, hashedPassword));
+    }
+
+    /**
+     * Checks the raw password against the hashed password on the hashing pool without waiting for the result.
+     * @param rawPassword - Raw password provided by the user
+     * @param hashedPassword - Hashed password stored in the database
+     * @return a future that completes with true if the passwords match. It completes exceptionally with a
+     * RejectedExecutionException if the pool is saturated, or a TimeoutException if the work did not finish in time.
+     */
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String hashedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, hashedPassword));
+    }
+
+    /**
+     * Given a failure from one of the hashing futures, determine if it was caused by the pool being out of capacity.
+     * @param failure - Exception thrown while waiting on a hashing future
+     * @return true if the work was rejected or timed out, false otherwise
+     */
+    public static boolean isCapacityFailure(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return cause instanceof RejectedExecutionException || cause instanceof TimeoutException;
+    }
+
+    /**
+     * Returns the number of hashing threads.
+     * @return pool size
+     */
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * Returns the number of hashing threads currently busy.
+     * @return active thread count
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Returns the number of hashing requests waiting for a free thread.
+     * @return queued request count
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Returns the number of hashing requests that have finished.
+     * @return completed request count
+     */
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * Returns the number of hashing requests that were turned away because the queue was full.
+     * @return rejected request count
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Returns the number of hashing requests that have started running.
+     * @return started request count
+     */
+    public long getStartedCount() {
+        return startedCount.sum();
+    }
+
+    /**
+     * Returns the total time hashing requests spent in the queue before a thread picked them up.
+     * @return total wait time in nanoseconds
+     */
+    public long getTotalWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    /**
+     * Returns the total time hashing threads spent doing BCrypt work.
+     * @return total work time in nanoseconds
+     */
+    public long getTotalWorkNanos() {
+        return workNanos.sum();
+    }
+
+    /**
+     * Stops the hashing threads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            // If the timeout fires first the queued work is skipped, since its future is already complete
+            final long queuedAt = System.nanoTime();
+            return CompletableFuture.supplyAsync(() -> timed(work, queuedAt), executor).orTimeout(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            logger.warn("PasswordHasher: rejected hashing request, {} active and {} queued", getActiveCount(), getQueueSize());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T timed(Supplier<T> work, long queuedAt) {
+        final long start = System.nanoTime();
+        startedCount.increment();
+        waitNanos.add(start - queuedAt);
+        try {
+            return work.get();
+        } finally {
+            workNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new RejectedExecutionException("Timed out waiting for the hashing pool", e.getCause());
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
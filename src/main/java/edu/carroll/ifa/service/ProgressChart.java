@@ -0,0 +1,25 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.RollupPeriod;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A player's logged training per period, ready to be charted.
+ * @param period - Kind of period every point covers
+ * @param points - One point per period, oldest first, periods without drills are all zero
+ */
+public record ProgressChart(RollupPeriod period, List<Point> points) {
+
+    /**
+     * The totals of one period.
+     * @param periodStart - First day of the period
+     * @param drills - Number of drills logged
+     * @param minutes - Total minutes
+     * @param juggles - Total juggles
+     * @param shots - Total shots
+     */
+    public record Point(LocalDate periodStart, int drills, long minutes, long juggles, long shots) {
+    }
+}
@@ -0,0 +1,27 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.RollupPeriod;
+
+import java.util.Collection;
+
+/**
+ * Interface for the progress rollup service, which keeps per day, week and month totals of every player's logged
+ * training. record should run in the same transaction as the logs it records, so both commit or neither does.
+ */
+public interface ProgressRollupService {
+
+    /**
+     * Adds newly logged drills to the totals of the day, week and month they were logged in.
+     * @param entries - Drills just logged
+     */
+    void record(Collection<TrainingLogEntry> entries);
+
+    /**
+     * Returns a player's totals for the most recent periods, up to and including the current one.
+     * @param userId - Id of the user
+     * @param period - Kind of period
+     * @param points - Number of periods to return
+     * @return the chart, with a point for every period
+     */
+    ProgressChart getChart(int userId, RollupPeriod period, int points);
+}
@@ -0,0 +1,113 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.ProgressRollup;
+import edu.carroll.ifa.jpa.model.ProgressRollupId;
+import edu.carroll.ifa.jpa.model.RollupPeriod;
+import edu.carroll.ifa.jpa.repo.ProgressRollupRepository;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class keeps one row per player, kind of period and period with the totals of the drills logged in it. A batch
+ * of logs reads the rows it touches in one query and writes them back in JDBC batches, and a chart reads one row per
+ * point, so neither ever scans the logs.
+ */
+@Service
+public class ProgressRollupServiceImpl implements ProgressRollupService {
+    // the same zone the logs' times are stored in, so a drill counts on the day the database shows for it
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final ProgressRollupRepository rollupRepo;
+    private final UserRepository userRepo;
+
+    /**
+     * Constructs a ProgressRollupServiceImpl instance with the repositories.
+     * @param rollupRepo - ProgressRollupRepository holding the totals
+     * @param userRepo - UserRepository the rollups' users are referenced through
+     */
+    public ProgressRollupServiceImpl(ProgressRollupRepository rollupRepo, UserRepository userRepo) {
+        this.rollupRepo = rollupRepo;
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * Adds newly logged drills to the totals of the day, week and month they were logged in.
+     * @param entries - Drills just logged
+     */
+    @Override
+    @Transactional
+    public void record(Collection<TrainingLogEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        final Set<Integer> userIds = new HashSet<>();
+        LocalDate from = LocalDate.MAX;
+        for (TrainingLogEntry entry : entries) {
+            userIds.add(entry.userId());
+            final LocalDate day = LocalDate.ofInstant(entry.loggedAt(), ZONE);
+            // a week can start in the month before
+            from = min(from, min(RollupPeriod.WEEK.startOf(day), RollupPeriod.MONTH.startOf(day)));
+        }
+        final Map<ProgressRollupId, ProgressRollup> rollups = new HashMap<>();
+        for (ProgressRollup rollup : rollupRepo.findForUpdate(userIds, from)) {
+            rollups.put(rollup.getId(), rollup);
+        }
+        final List<ProgressRollup> created = new ArrayList<>();
+        for (TrainingLogEntry entry : entries) {
+            final LocalDate day = LocalDate.ofInstant(entry.loggedAt(), ZONE);
+            for (RollupPeriod period : RollupPeriod.values()) {
+                final ProgressRollup rollup = rollups.computeIfAbsent(
+                        new ProgressRollupId(entry.userId(), period, period.startOf(day)), id -> {
+                            final ProgressRollup newRollup = new ProgressRollup(id, userRepo.getReferenceById(id.getUserId()));
+                            created.add(newRollup);
+                            return newRollup;
+                        });
+                rollup.add(entry.minutes(), entry.juggles(), entry.shots());
+            }
+        }
+        // rows read above are managed and written back at commit, new ones are saved with their final totals
+        rollupRepo.saveAll(created);
+    }
+
+    /**
+     * Returns a player's totals for the most recent periods, up to and including the current one.
+     * @param userId - Id of the user
+     * @param period - Kind of period
+     * @param points - Number of periods to return
+     * @return the chart, with a point for every period
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ProgressChart getChart(int userId, RollupPeriod period, int points) {
+        final LocalDate to = period.startOf(LocalDate.now(ZONE));
+        final LocalDate from = period.plus(to, 1L - points);
+        final Iterator<ProgressRollup> rollups = rollupRepo.findRange(userId, period, from, to).iterator();
+        ProgressRollup next = rollups.hasNext() ? rollups.next() : null;
+        final List<ProgressChart.Point> chart = new ArrayList<>(points);
+        for (LocalDate start = from; !start.isAfter(to); start = period.plus(start, 1)) {
+            if (next != null && next.getId().getPeriodStart().equals(start)) {
+                chart.add(new ProgressChart.Point(start, next.getDrills(), next.getMinutes(), next.getJuggles(), next.getShots()));
+                next = rollups.hasNext() ? rollups.next() : null;
+            } else {
+                chart.add(new ProgressChart.Point(start, 0, 0, 0, 0));
+            }
+        }
+        return new ProgressChart(period, chart);
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,39 @@
+package edu.carroll.ifa.service;
+
+import java.util.List;
+
+/**
+ * Snapshot of the Hibernate statistics since startup or the last reset.
+ * @param statementsPrepared - Number of JDBC statements prepared
+ * @param slowestQuery - Query with the longest single execution, null if no query has run
+ * @param slowestQueryMs - Longest single query execution in milliseconds
+ * @param queries - Per-query statistics, the most total time first
+ * @param userEntity - Statistics for the User entity
+ */
+public record QueryStats(long statementsPrepared, String slowestQuery, long slowestQueryMs, List<Query> queries,
+                         Entity userEntity) {
+
+    /**
+     * Statistics for one query shape.
+     * @param query - JPQL or SQL of the query, without parameter values
+     * @param executions - Number of times it ran
+     * @param rows - Total number of rows it returned
+     * @param averageMs - Average execution time in milliseconds
+     * @param maxMs - Longest execution time in milliseconds
+     * @param totalMs - Estimated total execution time in milliseconds
+     */
+    public record Query(String query, long executions, long rows, long averageMs, long maxMs, long totalMs) {
+    }
+
+    /**
+     * Statistics for an entity, counting the statements Hibernate issued for it outside of queries.
+     * @param loads - Number of instances loaded
+     * @param fetches - Number of instances fetched by a separate select
+     * @param inserts - Number of instances inserted
+     * @param updates - Number of instances updated
+     * @param deletes - Number of instances deleted
+     * @param optimisticFailures - Number of optimistic lock failures
+     */
+    public record Entity(long loads, long fetches, long inserts, long updates, long deletes, long optimisticFailures) {
+    }
+}
@@ -0,0 +1,18 @@
+package edu.carroll.ifa.service;
+
+/**
+ * Interface for the query statistics service, which reports what the repositories have been asking the database.
+ */
+public interface QueryStatsService {
+
+    /**
+     * Returns the statistics gathered since startup or the last reset.
+     * @return QueryStats with totals, per-query and per-entity statistics
+     */
+    QueryStats getStats();
+
+    /**
+     * Starts the statistics over from zero.
+     */
+    void reset();
+}
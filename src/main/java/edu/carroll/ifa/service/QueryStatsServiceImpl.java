@@ -0,0 +1,66 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class reads the statistics Hibernate keeps when hibernate.generate_statistics is on. With it off every count
+ * stays at zero.
+ */
+@Service
+public class QueryStatsServiceImpl implements QueryStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatsServiceImpl.class);
+    private final Statistics statistics;
+
+    /**
+     * Constructs a QueryStatsServiceImpl instance with the EntityManagerFactory.
+     * @param entityManagerFactory - EntityManagerFactory whose Hibernate statistics are reported
+     */
+    public QueryStatsServiceImpl(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Returns the statistics gathered since startup or the last reset.
+     * @return QueryStats with totals, per-query and per-entity statistics
+     */
+    @Override
+    public QueryStats getStats() {
+        final List<QueryStats.Query> queries = Arrays.stream(statistics.getQueries())
+                .map(this::toQuery)
+                .sorted(Comparator.comparingLong(QueryStats.Query::totalMs).reversed())
+                .toList();
+        final EntityStatistics user = statistics.getEntityStatistics(User.class.getName());
+        return new QueryStats(statistics.getPrepareStatementCount(), statistics.getQueryExecutionMaxTimeQueryString(),
+                statistics.getQueryExecutionMaxTime(), queries,
+                new QueryStats.Entity(user.getLoadCount(), user.getFetchCount(), user.getInsertCount(),
+                        user.getUpdateCount(), user.getDeleteCount(), user.getOptimisticFailureCount()));
+    }
+
+    /**
+     * Starts the statistics over from zero.
+     */
+    @Override
+    public void reset() {
+        logger.info("reset: clearing query statistics");
+        statistics.clear();
+    }
+
+    private QueryStats.Query toQuery(String query) {
+        final QueryStatistics stats = statistics.getQueryStatistics(query);
+        return new QueryStats.Query(query, stats.getExecutionCount(), stats.getExecutionRowCount(),
+                stats.getExecutionAvgTime(), stats.getExecutionMaxTime(),
+                stats.getExecutionAvgTime() * stats.getExecutionCount());
+    }
+}
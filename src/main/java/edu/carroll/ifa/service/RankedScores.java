@@ -0,0 +1,117 @@
+package edu.carroll.ifa.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * One leaderboard, kept sorted in memory. Entries sit in a skip list ordered best first, so the top N are read by
+ * walking its head without locking, and a Fenwick tree counts players per juggle count, so a player's rank is a
+ * prefix sum. Adding, replacing and ranking a player are all O(log n).
+ */
+public class RankedScores {
+    /**
+     * Highest juggle count the tree keeps apart, higher counts are ranked as if they were this one.
+     */
+    public static final int MAX_SCORE = 100_000;
+
+    private static final Comparator<LeaderboardEntry> BEST_FIRST = Comparator
+            .comparingInt(LeaderboardEntry::juggles).reversed()
+            .thenComparing(LeaderboardEntry::achievedAt)
+            .thenComparingInt(LeaderboardEntry::userId);
+
+    private final NavigableSet<LeaderboardEntry> entries = new ConcurrentSkipListSet<>(BEST_FIRST);
+    private final Map<Integer, LeaderboardEntry> byUser = new ConcurrentHashMap<>();
+    // counts[i] covers a range of scores ending at score i - 1, see prefixCount
+    private final int[] counts = new int[MAX_SCORE + 2];
+
+    /**
+     * Adds a player, or replaces the entry they already have.
+     * @param entry - Player's entry
+     */
+    public synchronized void put(LeaderboardEntry entry) {
+        final LeaderboardEntry old = byUser.put(entry.userId(), entry);
+        if (old != null) {
+            entries.remove(old);
+            addCount(old.juggles(), -1);
+        }
+        entries.add(entry);
+        addCount(entry.juggles(), 1);
+    }
+
+    /**
+     * Takes a player off the leaderboard.
+     * @param userId - Id of the user
+     * @return the entry removed, null if the player was not on the leaderboard
+     */
+    public synchronized LeaderboardEntry remove(int userId) {
+        final LeaderboardEntry old = byUser.remove(userId);
+        if (old != null) {
+            entries.remove(old);
+            addCount(old.juggles(), -1);
+        }
+        return old;
+    }
+
+    /**
+     * Returns a player's entry.
+     * @param userId - Id of the user
+     * @return the entry, null if the player is not on the leaderboard
+     */
+    public LeaderboardEntry get(int userId) {
+        return byUser.get(userId);
+    }
+
+    /**
+     * Returns the best players, best first.
+     * @param limit - Most players to return
+     * @return up to limit entries
+     */
+    public List<LeaderboardEntry> top(int limit) {
+        return entries.stream().limit(limit).toList();
+    }
+
+    /**
+     * Returns a player's rank, one more than the number of players with more juggles. Players with the same count
+     * share a rank.
+     * @param userId - Id of the user
+     * @return the rank, 0 if the player is not on the leaderboard
+     */
+    public synchronized int rankOf(int userId) {
+        final LeaderboardEntry entry = byUser.get(userId);
+        if (entry == null) {
+            return 0;
+        }
+        return byUser.size() - prefixCount(clamp(entry.juggles())) + 1;
+    }
+
+    /**
+     * Returns the number of players on the leaderboard.
+     * @return player count
+     */
+    public int size() {
+        return byUser.size();
+    }
+
+    private void addCount(int juggles, int delta) {
+        for (int i = clamp(juggles) + 1; i < counts.length; i += i & -i) {
+            counts[i] += delta;
+        }
+    }
+
+    // number of players with at most this many juggles
+    private int prefixCount(int juggles) {
+        int sum = 0;
+        for (int i = juggles + 1; i > 0; i -= i & -i) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+
+    private static int clamp(int juggles) {
+        return Math.max(0, Math.min(juggles, MAX_SCORE));
+    }
+}
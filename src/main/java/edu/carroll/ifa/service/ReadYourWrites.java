@@ -0,0 +1,59 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.config.DataSourceRouting;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * This class makes sure a user sees their own changes even though reads usually go to a replica that may lag behind
+ * the primary. When a user changes their account, their session is marked, and for a short window after that their
+ * reads go to the primary. Outside of a request nothing is marked.
+ */
+@Component
+public class ReadYourWrites {
+    private static final String ATTRIBUTE = ReadYourWrites.class.getName();
+
+    private final long windowMs;
+
+    /**
+     * Constructs a ReadYourWrites with the length of the window.
+     * @param windowMs - How long after a write the session keeps reading from the primary, longer than replica lag
+     */
+    public ReadYourWrites(@Value("${ifa.datasource.read-your-writes-ms:5000}") long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Marks the current session as having just written, so its reads go to the primary for a while.
+     */
+    public void recordWrite() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            // wall clock time, since the session may be read on another node
+            attributes.setAttribute(ATTRIBUTE, System.currentTimeMillis() + windowMs, RequestAttributes.SCOPE_SESSION);
+        }
+    }
+
+    /**
+     * Given a query, runs it on the primary if the current session wrote recently, otherwise wherever it would go.
+     * @param query - Query to run
+     * @return the result of the query
+     * @param <T> - Type of the result
+     */
+    public <T> T read(Supplier<T> query) {
+        return wroteRecently() ? DataSourceRouting.onPrimary(query) : query.get();
+    }
+
+    private boolean wroteRecently() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        final Long until = (Long) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_SESSION);
+        return until != null && System.currentTimeMillis() < until;
+    }
+}
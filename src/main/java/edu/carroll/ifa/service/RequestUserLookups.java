@@ -0,0 +1,107 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class remembers which users have already been looked up while handling the current HTTP request, so that a
+ * controller and the service calls it makes resolve each username at most once. Outside of a request (tests, startup
+ * jobs, the hashing pool) nothing is remembered and every lookup goes through as usual.
+ */
+@Component
+public class RequestUserLookups {
+    private static final Logger logger = LoggerFactory.getLogger(RequestUserLookups.class);
+    private static final String ATTRIBUTE = RequestUserLookups.class.getName();
+
+    /**
+     * Given a normalized username, determine if it was already resolved during this request.
+     * @param normalizedUsername - Username already run through User.normalizeUsername
+     * @return true if the user was found or found to be missing earlier in this request, false otherwise
+     */
+    public boolean isResolved(String normalizedUsername) {
+        final Lookups lookups = current();
+        return lookups != null && lookups.users.containsKey(normalizedUsername);
+    }
+
+    /**
+     * Given a normalized username that was already resolved, returns the user it resolved to.
+     * @param normalizedUsername - Username already run through User.normalizeUsername
+     * @return the same User instance returned earlier in this request, or null if the user does not exist
+     */
+    public User get(String normalizedUsername) {
+        final Lookups lookups = current();
+        return lookups == null ? null : lookups.users.get(normalizedUsername);
+    }
+
+    /**
+     * Remembers what a username resolved to for the rest of this request.
+     * @param normalizedUsername - Username already run through User.normalizeUsername
+     * @param user - User the username resolved to, or null if it does not exist
+     */
+    public void remember(String normalizedUsername, User user) {
+        final Lookups lookups = current();
+        if (lookups != null && normalizedUsername != null) {
+            lookups.users.put(normalizedUsername, user);
+        }
+    }
+
+    /**
+     * Forgets a username so the next lookup in this request goes to the database again.
+     * @param normalizedUsername - Username already run through User.normalizeUsername
+     */
+    public void forget(String normalizedUsername) {
+        final Lookups lookups = current();
+        if (lookups != null) {
+            lookups.users.remove(normalizedUsername);
+        }
+    }
+
+    /**
+     * Counts a user query sent to the database during this request.
+     */
+    public void recordQuery() {
+        final Lookups lookups = current();
+        if (lookups != null) {
+            lookups.queries++;
+        }
+    }
+
+    /**
+     * Returns the number of user queries sent to the database so far during this request.
+     * @return query count, 0 outside of a request
+     */
+    public int getQueryCount() {
+        final Lookups lookups = current();
+        return lookups == null ? 0 : lookups.queries;
+    }
+
+    private Lookups current() {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Lookups lookups = (Lookups) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (lookups == null) {
+            final Lookups created = new Lookups();
+            attributes.setAttribute(ATTRIBUTE, created, RequestAttributes.SCOPE_REQUEST);
+            // runs once the request has been handled
+            attributes.registerDestructionCallback(ATTRIBUTE,
+                    () -> logger.debug("request resolved {} usernames with {} user queries", created.users.size(), created.queries),
+                    RequestAttributes.SCOPE_REQUEST);
+            lookups = created;
+        }
+        return lookups;
+    }
+
+    private static final class Lookups {
+        private final Map<String, User> users = new HashMap<>();
+        private int queries;
+    }
+}
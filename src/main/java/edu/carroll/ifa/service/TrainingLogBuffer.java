@@ -0,0 +1,305 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.TrainingLog;
+import edu.carroll.ifa.jpa.repo.TrainingLogRepository;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class takes in the drills players log and writes them to the database behind their backs. Logged drills wait
+ * in a bounded queue and a single writer thread inserts them in batches, once batch-size of them are waiting or the
+ * oldest has waited flush-interval-ms, so a rush of players logging at the start of practice costs a few batched
+ * inserts instead of a transaction each. When the queue is full a submission waits briefly for room and is then
+ * turned away, so the player can try again instead of the node running out of memory.
+ * On shutdown the buffer stops taking submissions after the web server has stopped and writes everything it
+ * accepted before the database connections are closed.
+ */
+@Component
+public class TrainingLogBuffer implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(TrainingLogBuffer.class);
+    // stop after the web server (which stops at DEFAULT_PHASE - 1024 and - 2048) so requests still being handled
+    // during a graceful shutdown can log their drills
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    // the writer waits for entries in slices this long so it notices a stop quickly without being interrupted, which
+    // could break a write it is in the middle of
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final TrainingLogRepository logRepo;
+    private final UserRepository userRepo;
+    private final JuggleLeaderboard juggleLeaderboard;
+    private final ProgressRollupService progressRollups;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<TrainingLogEntry> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMs;
+    // submissions hold the read lock so stopping can wait for the ones in progress before the final flush
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition batchWritten = writeLock.newCondition();
+    // accepted entries not written or dropped yet, including a batch the writer thread is still filling
+    private final AtomicInteger unwritten = new AtomicInteger();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private volatile boolean accepting;
+    private volatile boolean running;
+    // set while flush() waits, so the writer thread writes the batch it is filling without waiting for it to fill up
+    private volatile boolean flushRequested;
+    private Thread writer;
+
+    /**
+     * Constructs a TrainingLogBuffer with a bounded queue.
+     * @param logRepo - TrainingLogRepository the logs are written to
+     * @param userRepo - UserRepository the logs' users are referenced through
+     * @param juggleLeaderboard - JuggleLeaderboard the logged juggles are recorded on
+     * @param progressRollups - ProgressRollupService the logged drills are added to the totals of
+     * @param transactionManager - Transaction manager each batch is written in
+     * @param capacity - Number of logged drills that may wait to be written before new ones are turned away
+     * @param batchSize - Number of logged drills written per transaction
+     * @param flushIntervalMs - Longest a logged drill waits for its batch to fill up
+     * @param offerTimeoutMs - How long a submission waits for room in a full queue before it is turned away
+     */
+    public TrainingLogBuffer(TrainingLogRepository logRepo, UserRepository userRepo, JuggleLeaderboard juggleLeaderboard,
+                             ProgressRollupService progressRollups, PlatformTransactionManager transactionManager,
+                             @Value("${ifa.training-log.capacity:10000}") int capacity,
+                             @Value("${ifa.training-log.batch-size:200}") int batchSize,
+                             @Value("${ifa.training-log.flush-interval-ms:500}") long flushIntervalMs,
+                             @Value("${ifa.training-log.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.logRepo = logRepo;
+        this.userRepo = userRepo;
+        this.juggleLeaderboard = juggleLeaderboard;
+        this.progressRollups = progressRollups;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    /**
+     * Accepts a logged drill to be written with the next batch.
+     * @param entry - Drill the player logged
+     * @return true if the entry was accepted, false if the buffer is full or not running and the player should try
+     * again later
+     */
+    public boolean submit(TrainingLogEntry entry) {
+        acceptLock.readLock().lock();
+        try {
+            if (accepting && queue.offer(entry, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                unwritten.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        rejectedCount.increment();
+        logger.warn("submit: turned away a training log for user {}, {} are waiting to be written", entry.userId(), getQueueSize());
+        return false;
+    }
+
+    /**
+     * Writes every entry accepted so far and waits until they are written, including a batch the writer thread
+     * already took from the queue.
+     * @return the number of entries this call wrote itself
+     */
+    public int flush() {
+        int written = 0;
+        final List<TrainingLogEntry> batch = new ArrayList<>(batchSize);
+        writeLock.lock();
+        try {
+            while (true) {
+                while (queue.drainTo(batch, batchSize) > 0) {
+                    written += write(batch);
+                    batch.clear();
+                }
+                if (unwritten.get() <= 0 || !running) {
+                    return written;
+                }
+                flushRequested = true;
+                batchWritten.awaitNanos(WAIT_SLICE_NANOS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return written;
+        } finally {
+            flushRequested = false;
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Starts the writer thread and begins accepting submissions.
+     */
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeBatches, "training-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        accepting = true;
+    }
+
+    /**
+     * Stops accepting submissions, then waits for the writer thread and writes whatever is still queued.
+     */
+    @Override
+    public void stop() {
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final int written = flush();
+        logger.info("stop: wrote {} remaining training logs, {} written and {} dropped in total", written,
+                getWrittenCount(), getDroppedCount());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Returns the number of accepted entries not written yet.
+     * @return unwritten entry count
+     */
+    public int getQueueSize() {
+        return unwritten.get();
+    }
+
+    /**
+     * Returns the number of submissions turned away.
+     * @return rejected submission count
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Returns the number of entries written to the database.
+     * @return written entry count
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    /**
+     * Returns the number of accepted entries that could not be written, because their user was deleted first.
+     * @return dropped entry count
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    private void writeBatches() {
+        final List<TrainingLogEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                final TrainingLogEntry first = queue.poll(WAIT_SLICE_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // give the batch until the interval is over to fill up, stop() writes whatever is left
+                final long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize && running && !flushRequested) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    final TrainingLogEntry next = queue.poll(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private int write(List<TrainingLogEntry> batch) {
+        // the writer thread and flush callers take turns so batches are written one at a time
+        writeLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                logRepo.saveAll(batch.stream().map(this::toLog).toList());
+                juggleLeaderboard.recordJuggles(batch);
+                progressRollups.record(batch);
+            });
+            writtenCount.add(batch.size());
+            return batch.size();
+        } catch (RuntimeException e) {
+            // most likely a user deleted while their logs were queued, or another node adding to the same totals,
+            // so write them one at a time
+            logger.warn("write: batch of {} training logs failed, writing them one at a time", batch.size(), e);
+            int written = 0;
+            for (TrainingLogEntry entry : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        logRepo.save(toLog(entry));
+                        juggleLeaderboard.recordJuggles(List.of(entry));
+                        progressRollups.record(List.of(entry));
+                    });
+                    written++;
+                } catch (RuntimeException failure) {
+                    droppedCount.increment();
+                    logger.warn("write: dropped the training log of user {} for '{}': {}", entry.userId(), entry.drill(),
+                            failure.getMessage());
+                }
+            }
+            writtenCount.add(written);
+            return written;
+        } finally {
+            unwritten.addAndGet(-batch.size());
+            batchWritten.signalAll();
+            writeLock.unlock();
+        }
+    }
+
+    private TrainingLog toLog(TrainingLogEntry entry) {
+        return new TrainingLog(userRepo.getReferenceById(entry.userId()), entry.drill(), entry.juggles(),
+                entry.minutes(), entry.shots(), entry.loggedAt());
+    }
+}
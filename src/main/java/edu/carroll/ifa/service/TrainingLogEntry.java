@@ -0,0 +1,16 @@
+package edu.carroll.ifa.service;
+
+import java.time.Instant;
+
+/**
+ * A drill a player logged as done, waiting to be written to the database.
+ * @param userId - Id of the user who did the drill
+ * @param drill - Name of the drill
+ * @param juggles - Juggles counted, null if not counted
+ * @param minutes - Minutes spent, null if not timed
+ * @param shots - Shots taken, null if not counted
+ * @param loggedAt - When the drill was logged
+ */
+public record TrainingLogEntry(int userId, String drill, Integer juggles, Integer minutes, Integer shots,
+                               Instant loggedAt) {
+}
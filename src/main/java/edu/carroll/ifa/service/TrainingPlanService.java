@@ -0,0 +1,22 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+
+/**
+ * Interface for the training plan service, which builds every member's weekly plan ahead of time.
+ */
+public interface TrainingPlanService {
+
+    /**
+     * Builds and saves this week's plan for every user, replacing the plans saved before.
+     * @return the number of plans saved, 0 if a run was already going
+     */
+    int generatePlans();
+
+    /**
+     * Returns the user's plan for this week.
+     * @param user - User whose plan to return
+     * @return the saved plan, or one built on the spot if the user has none for this week yet
+     */
+    WeeklyPlan getPlan(User user);
+}
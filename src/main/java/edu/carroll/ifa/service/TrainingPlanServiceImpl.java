@@ -0,0 +1,229 @@
+package edu.carroll.ifa.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.carroll.ifa.jpa.model.AgeBand;
+import edu.carroll.ifa.jpa.model.TrainingPlan;
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.TrainingPlanRepository;
+import edu.carroll.ifa.jpa.repo.UserKey;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class builds every member's weekly training plan in a nightly batch, so showing a plan is a single primary key
+ * lookup. The user table is split by id range on a fork-join pool: ranges are halved until they hold at most
+ * chunk-size ids, and each of those is read, planned and written back in one transaction of its own, with the inserts
+ * sent in JDBC batches.
+ */
+@Service
+public class TrainingPlanServiceImpl implements TrainingPlanService {
+    private static final Logger logger = LoggerFactory.getLogger(TrainingPlanServiceImpl.class);
+    private static final int DRILLS_PER_DAY = 2;
+
+    private final UserRepository userRepo;
+    private final TrainingPlanRepository planRepo;
+    private final DrillCatalog drillCatalog;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int parallelism;
+    private final int chunkSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Constructs a TrainingPlanServiceImpl instance with the repositories and the drill catalog.
+     * @param userRepo - UserRepository the plans are built for
+     * @param planRepo - TrainingPlanRepository the plans are saved to
+     * @param drillCatalog - DrillCatalog the drills are picked from
+     * @param objectMapper - ObjectMapper the schedules are stored with
+     * @param transactionManager - Transaction manager each range runs in
+     * @param parallelism - Number of ranges built at once, each holds a database connection so keep it below the pool size
+     * @param chunkSize - Largest id range built in one transaction
+     */
+    public TrainingPlanServiceImpl(UserRepository userRepo, TrainingPlanRepository planRepo, DrillCatalog drillCatalog,
+                                   ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                   @Value("${ifa.plans.parallelism:4}") int parallelism,
+                                   @Value("${ifa.plans.chunk-size:1000}") int chunkSize) {
+        this.userRepo = userRepo;
+        this.planRepo = planRepo;
+        this.drillCatalog = drillCatalog;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Builds the plans on the schedule set by ifa.plans.cron.
+     */
+    @Scheduled(cron = "${ifa.plans.cron:-}")
+    public void scheduledGeneratePlans() {
+        generatePlans();
+    }
+
+    /**
+     * Builds and saves this week's plan for every user, replacing the plans saved before.
+     * @return the number of plans saved, 0 if a run was already going
+     */
+    @Override
+    public int generatePlans() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("generatePlans: plans are already being generated");
+            return 0;
+        }
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final Integer minId = userRepo.findMinId();
+            final Integer maxId = userRepo.findMaxId();
+            if (minId == null || maxId == null) {
+                logger.info("generatePlans: there are no users to plan for");
+                return 0;
+            }
+            final long start = System.nanoTime();
+            // truncated so the stored time compares equal to it whatever precision the column rounds to
+            final Instant generatedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+            final int saved = pool.invoke(new RangeTask(minId, maxId, currentWeekStart(), generatedAt));
+            // users deleted since the last run whose ids fell outside this run's range still have a plan
+            final int removed = planRepo.deleteGeneratedBefore(generatedAt);
+            logger.info("generatePlans: saved {} plans and removed {} in {} ms on {} threads", saved, removed,
+                    (System.nanoTime() - start) / 1_000_000, parallelism);
+            return saved;
+        } finally {
+            pool.shutdown();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Returns the user's plan for this week. A user who registered since the last run, or whose plan is from an
+     * earlier week, gets one built on the spot instead.
+     * @param user - User whose plan to return
+     * @return the user's plan
+     */
+    @Override
+    public WeeklyPlan getPlan(User user) {
+        final LocalDate weekStart = currentWeekStart();
+        final TrainingPlan saved = planRepo.findById(user.getId()).orElse(null);
+        if (saved != null && weekStart.equals(saved.getWeekStart())) {
+            try {
+                return objectMapper.readValue(saved.getSchedule(), WeeklyPlan.class);
+            } catch (JsonProcessingException e) {
+                logger.warn("getPlan: could not read the saved plan of user {}, building a new one", user.getId(), e);
+            }
+        }
+        return buildPlan(user.getId(), user.getAge(), drillCatalog.drillsFor(user.getAge()), weekStart);
+    }
+
+    /**
+     * Builds one member's plan for a week. Older members train on more days, and the drills for their age are dealt
+     * out across those days starting at a point picked by user id, so members of the same age don't all get the
+     * same drills on the same day.
+     * @param userId - Id of the user the plan is for
+     * @param age - Age of the user
+     * @param drillSet - Drills for the user's age
+     * @param weekStart - Monday of the week the plan is for
+     * @return the plan
+     */
+    static WeeklyPlan buildPlan(int userId, int age, DrillSet drillSet, LocalDate weekStart) {
+        final List<DrillSet.Item> drills = drillSet.drills();
+        final int trainingDays = trainingDays(age);
+        final int perDay = Math.min(DRILLS_PER_DAY, drills.size());
+        final List<WeeklyPlan.Day> days = new ArrayList<>(7);
+        int next = drills.isEmpty() ? 0 : Math.floorMod(userId, drills.size());
+        int trainingDay = 0;
+        for (int i = 0; i < 7; i++) {
+            final List<DrillSet.Item> today = new ArrayList<>(perDay);
+            // spread the training days evenly over the week, e.g. Monday, Wednesday and Friday for three
+            if (trainingDay < trainingDays && i == trainingDay * 7 / trainingDays) {
+                for (int j = 0; j < perDay; j++) {
+                    today.add(drills.get(next));
+                    next = (next + 1) % drills.size();
+                }
+                trainingDay++;
+            }
+            days.add(new WeeklyPlan.Day(DayOfWeek.MONDAY.plus(i), List.copyOf(today)));
+        }
+        return new WeeklyPlan(weekStart, List.copyOf(days));
+    }
+
+    /**
+     * Returns how many days a week a member of this age trains, from two for the youngest band up to six.
+     * @param age - Age of the member
+     * @return training days per week
+     */
+    static int trainingDays(int age) {
+        return Math.min(6, 2 + AgeBand.of(age).ordinal());
+    }
+
+    private static LocalDate currentWeekStart() {
+        return LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private int generateRange(int fromId, int toId, LocalDate weekStart, Instant generatedAt) {
+        final Integer saved = transactionTemplate.execute(status -> {
+            final List<UserKey> users = userRepo.findByIdBetweenOrderByIdAsc(fromId, toId);
+            final List<TrainingPlan> plans = new ArrayList<>(users.size());
+            for (UserKey user : users) {
+                final WeeklyPlan plan = buildPlan(user.getId(), user.getAge(), drillCatalog.drillsFor(user.getAge()), weekStart);
+                plans.add(new TrainingPlan(user.getId(), weekStart, toJson(plan), generatedAt));
+            }
+            // also drops the plans of users deleted since the last run
+            planRepo.deleteByUserIdRange(fromId, toId);
+            planRepo.saveAll(plans);
+            return plans.size();
+        });
+        return saved == null ? 0 : saved;
+    }
+
+    private String toJson(WeeklyPlan plan) {
+        try {
+            return objectMapper.writeValueAsString(plan);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final class RangeTask extends RecursiveTask<Integer> {
+        private final int fromId;
+        private final int toId;
+        private final LocalDate weekStart;
+        private final Instant generatedAt;
+
+        private RangeTask(int fromId, int toId, LocalDate weekStart, Instant generatedAt) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.weekStart = weekStart;
+            this.generatedAt = generatedAt;
+        }
+
+        @Override
+        protected Integer compute() {
+            if ((long) toId - fromId < chunkSize) {
+                return generateRange(fromId, toId, weekStart, generatedAt);
+            }
+            final int mid = (int) (((long) fromId + toId) / 2);
+            final RangeTask low = new RangeTask(fromId, mid, weekStart, generatedAt);
+            final RangeTask high = new RangeTask(mid + 1, toId, weekStart, generatedAt);
+            high.fork();
+            return low.compute() + high.join();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class keeps recently used users in memory, keyed by normalized username, so that clicking between the pages of
+ * a logged-in user does not go back to the database every time. It holds at most a fixed number of users, drops the
+ * least recently used one when full, and forgets any user after a fixed time so changes made by other nodes show up.
+ * Users are copied on the way in and out, so callers never share an instance.
+ */
+@Component
+public class UserCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, CachedUser> users;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a UserCache with a size limit and a time to live.
+     * @param maxSize - Most users held at once
+     * @param ttlSeconds - How long a user is kept after it was cached
+     */
+    public UserCache(@Value("${ifa.user-cache.max-size:10000}") int maxSize,
+                     @Value("${ifa.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        // access ordered, so the eldest entry is the least recently used one
+        this.users = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                if (size() > UserCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Given a normalized username, returns a copy of the cached user.
+     * @param normalizedUsername - Username already run through User.normalizeUsername
+     * @return a copy of the user if it is cached and has not expired, null otherwise
+     */
+    public User get(String normalizedUsername) {
+        if (normalizedUsername == null) {
+            return null;
+        }
+        synchronized (users) {
+            CachedUser cached = users.get(normalizedUsername);
+            if (cached != null && cached.expiresAt - System.nanoTime() <= 0) {
+                users.remove(normalizedUsername);
+                evictions.increment();
+                cached = null;
+            }
+            if (cached == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return new User(cached.user);
+        }
+    }
+
+    /**
+     * Caches a copy of the user. If a transaction is running, the user is only cached once it commits, so data that
+     * might still be rolled back never ends up in the cache.
+     * @param user - User loaded from the database
+     */
+    public void put(User user) {
+        if (user == null || user.getNormalizedUsername() == null) {
+            return;
+        }
+        final User copy = new User(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    store(copy);
+                }
+            });
+        } else {
+            store(copy);
+        }
+    }
+
+    /**
+     * Removes a user from the cache. If a transaction is running, the user is removed again once it finishes, in case
+     * another request cached the old data in the meantime.
+     * @param normalizedUsername - Username already run through User.normalizeUsername
+     */
+    public void invalidate(String normalizedUsername) {
+        if (normalizedUsername == null) {
+            return;
+        }
+        remove(normalizedUsername);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(normalizedUsername);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the cache hit, miss and eviction counts along with its current size.
+     * @return a snapshot of the cache statistics
+     */
+    public Stats getStats() {
+        final int size;
+        synchronized (users) {
+            size = users.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private void store(User copy) {
+        synchronized (users) {
+            users.put(copy.getNormalizedUsername(), new CachedUser(copy, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    private void remove(String normalizedUsername) {
+        synchronized (users) {
+            users.remove(normalizedUsername);
+        }
+    }
+
+    private record CachedUser(User user, long expiresAt) {
+    }
+
+    /**
+     * Snapshot of the cache statistics.
+     * @param hits - Lookups answered from the cache
+     * @param misses - Lookups that had to go to the database
+     * @param evictions - Users dropped because the cache was full or they expired
+     * @param size - Users currently cached
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+    }
+}
@@ -0,0 +1,39 @@
+package edu.carroll.ifa.service;
+
+/**
+ * Lets coaches browse and search the members. Pages are found by seeking past the last user of the previous page rather
+ * than by page number, so a page deep into the list costs the same as the first one.
+ */
+public interface UserDirectoryService {
+    /**
+     * Largest number of users returned on one page.
+     */
+    int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Name a search can match the start of.
+     */
+    enum NameField {
+        FIRST_NAME,
+        LAST_NAME
+    }
+
+    /**
+     * Returns a page of users in id order.
+     * @param afterId - Id to continue after, null for the first page
+     * @param pageSize - Number of users wanted, limited to 1 through MAX_PAGE_SIZE
+     * @return the page of users
+     */
+    UserSummaryPage listUsers(Integer afterId, int pageSize);
+
+    /**
+     * Returns a page of users whose first or last name starts with a prefix, ordered by that name and then id.
+     * @param field - Which name to search
+     * @param prefix - Start of the name, matched literally
+     * @param afterName - Name to continue after, null for the first page
+     * @param afterId - Id to continue after, null for the first page
+     * @param pageSize - Number of users wanted, limited to 1 through MAX_PAGE_SIZE
+     * @return the page of users
+     */
+    UserSummaryPage searchUsers(NameField field, String prefix, String afterName, Integer afterId, int pageSize);
+}
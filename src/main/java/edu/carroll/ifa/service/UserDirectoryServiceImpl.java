@@ -0,0 +1,88 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import edu.carroll.ifa.jpa.repo.UserSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * This class pages through the members with keyset queries. Each page asks for one user more than it returns, which
+ * tells us whether there is a next page without a count query.
+ */
+@Service
+public class UserDirectoryServiceImpl implements UserDirectoryService {
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectoryServiceImpl.class);
+
+    private final UserRepository userRepo;
+
+    /**
+     * Constructs a UserDirectoryServiceImpl instance with the UserRepository.
+     * @param userRepo - UserRepository the pages are read from
+     */
+    public UserDirectoryServiceImpl(UserRepository userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * Returns a page of users in id order.
+     * @param afterId - Id to continue after, null for the first page
+     * @param pageSize - Number of users wanted, limited to 1 through MAX_PAGE_SIZE
+     * @return the page of users
+     */
+    @Override
+    public UserSummaryPage listUsers(Integer afterId, int pageSize) {
+        final int size = clampPageSize(pageSize);
+        final List<UserSummary> users = userRepo.findSummariesAfterId(afterId == null ? 0 : afterId, PageRequest.of(0, size + 1));
+        logger.debug("listUsers: {} users after id {}", users.size(), afterId);
+        if (users.size() <= size) {
+            return new UserSummaryPage(users, null, null);
+        }
+        final List<UserSummary> page = users.subList(0, size);
+        return new UserSummaryPage(List.copyOf(page), null, page.get(size - 1).id());
+    }
+
+    /**
+     * Returns a page of users whose first or last name starts with a prefix, ordered by that name and then id.
+     * @param field - Which name to search
+     * @param prefix - Start of the name, matched literally
+     * @param afterName - Name to continue after, null for the first page
+     * @param afterId - Id to continue after, null for the first page
+     * @param pageSize - Number of users wanted, limited to 1 through MAX_PAGE_SIZE
+     * @return the page of users
+     */
+    @Override
+    public UserSummaryPage searchUsers(NameField field, String prefix, String afterName, Integer afterId, int pageSize) {
+        final int size = clampPageSize(pageSize);
+        final String pattern = escapeLike(prefix == null ? "" : prefix) + "%";
+        final String name = afterName == null ? "" : afterName;
+        final int id = afterId == null ? 0 : afterId;
+        final PageRequest limit = PageRequest.of(0, size + 1);
+        final List<UserSummary> users = field == NameField.FIRST_NAME
+                ? userRepo.findSummariesByFirstNamePrefix(pattern, name, id, limit)
+                : userRepo.findSummariesByLastNamePrefix(pattern, name, id, limit);
+        logger.debug("searchUsers: {} users with {} starting with '{}'", users.size(), field, prefix);
+        if (users.size() <= size) {
+            return new UserSummaryPage(users, null, null);
+        }
+        final UserSummary last = users.get(size - 1);
+        return new UserSummaryPage(List.copyOf(users.subList(0, size)),
+                field == NameField.FIRST_NAME ? last.firstName() : last.lastName(), last.id());
+    }
+
+    private static int clampPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Escapes the LIKE wildcards so the prefix is matched literally, using ! as the escape character.
+     * @param prefix - Prefix typed by the coach
+     * @return the prefix with !, % and _ escaped
+     */
+    static String escapeLike(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,27 @@
+package edu.carroll.ifa.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Exports the member roster. Password hashes are never part of an export.
+ */
+public interface UserExportService {
+    /**
+     * File formats a roster can be exported in.
+     */
+    enum Format {
+        CSV,
+        JSON
+    }
+
+    /**
+     * Writes every user to the output as they are read from the database, so the whole roster is never in memory at
+     * once. CSV has a header line with the same column names the import reads; JSON is one array of user objects.
+     * @param format - Format to write
+     * @param out - Stream to write to, it is flushed but not closed
+     * @return the number of users written
+     * @throws IOException if the output cannot be written
+     */
+    long exportUsers(Format format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,103 @@
+package edu.carroll.ifa.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * This class streams the users table straight to an output stream. Users come off a forward-only cursor a fetch at a
+ * time and each one is detached once it has been written, so memory use stays flat however big the roster gets.
+ */
+@Service
+public class UserExportServiceImpl implements UserExportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserExportServiceImpl.class);
+
+    private final UserRepository userRepo;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a UserExportServiceImpl instance with the UserRepository.
+     * @param userRepo - UserRepository the users are streamed from
+     * @param entityManager - EntityManager used to detach users once they are written
+     * @param objectMapper - ObjectMapper whose settings the JSON export uses
+     */
+    public UserExportServiceImpl(UserRepository userRepo, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.userRepo = userRepo;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every user to the output as they are read from the database.
+     * @param format - Format to write
+     * @param out - Stream to write to, it is flushed but not closed
+     * @return the number of users written
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(Format format, OutputStream out) throws IOException {
+        final long written;
+        try (Stream<User> users = userRepo.streamAllOrderById()) {
+            written = format == Format.JSON ? writeJson(users.iterator(), out) : writeCsv(users.iterator(), out);
+        }
+        logger.info("exportUsers: exported {} users as {}", written, format);
+        return written;
+    }
+
+    private long writeCsv(Iterator<User> users, OutputStream out) throws IOException {
+        // not closed, so the caller's stream stays open
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(Csv.formatLine("id", "username", "firstName", "lastName", "age"));
+        writer.write('\n');
+        long written = 0;
+        while (users.hasNext()) {
+            final User user = users.next();
+            writer.write(Csv.formatLine(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(), user.getAge()));
+            writer.write('\n');
+            entityManager.detach(user);
+            written++;
+        }
+        writer.flush();
+        return written;
+    }
+
+    private long writeJson(Iterator<User> users, OutputStream out) throws IOException {
+        long written = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.writeStartArray();
+            while (users.hasNext()) {
+                final User user = users.next();
+                json.writeStartObject();
+                json.writeNumberField("id", user.getId());
+                json.writeStringField("username", user.getUsername());
+                json.writeStringField("firstName", user.getFirstName());
+                json.writeStringField("lastName", user.getLastName());
+                json.writeNumberField("age", user.getAge());
+                json.writeEndObject();
+                entityManager.detach(user);
+                written++;
+            }
+            json.writeEndArray();
+        }
+        return written;
+    }
+}
@@ -0,0 +1,22 @@
+package edu.carroll.ifa.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import.
+ * @param rowsRead - Number of data rows read from the file, not counting the header or blank lines
+ * @param imported - Number of users saved
+ * @param failed - Number of rows that were not saved
+ * @param failures - Why rows were not saved, limited to the first UserImportService.MAX_REPORTED_FAILURES
+ */
+public record UserImportReport(int rowsRead, int imported, int failed, List<RowFailure> failures) {
+
+    /**
+     * A row that was not saved.
+     * @param line - Line number of the row in the file, the header is line 1
+     * @param username - Username given in the row, may be null
+     * @param reason - Why the row was not saved
+     */
+    public record RowFailure(long line, String username, String reason) {
+    }
+}
@@ -0,0 +1,58 @@
+package edu.carroll.ifa.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * This class imports users from the CSV files given with --import-users=path/to/users.csv when the application starts.
+ * Without that option it does nothing.
+ */
+@Component
+public class UserImportRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(UserImportRunner.class);
+    private static final String OPTION = "import-users";
+
+    private final UserImportService userImportService;
+
+    /**
+     * Constructs a UserImportRunner instance with the UserImportService.
+     * @param userImportService - UserImportService that reads and saves the users
+     */
+    public UserImportRunner(UserImportService userImportService) {
+        this.userImportService = userImportService;
+    }
+
+    /**
+     * Imports each file given with --import-users.
+     * @param args - Application arguments
+     * @throws IOException if one of the files cannot be read
+     */
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        final List<String> paths = args.getOptionValues(OPTION);
+        if (paths == null) {
+            return;
+        }
+        for (String path : paths) {
+            logger.info("run: importing users from {}", path);
+            final UserImportReport report;
+            try (Reader reader = Files.newBufferedReader(Path.of(path), StandardCharsets.UTF_8)) {
+                report = userImportService.importUsers(reader);
+            }
+            for (UserImportReport.RowFailure failure : report.failures()) {
+                logger.warn("run: line {} ('{}') was not imported: {}", failure.line(), failure.username(), failure.reason());
+            }
+            logger.info("run: {} imported {} of {} users", path, report.imported(), report.rowsRead());
+        }
+    }
+}
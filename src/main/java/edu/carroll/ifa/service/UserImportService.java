@@ -0,0 +1,25 @@
+package edu.carroll.ifa.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Imports users in bulk, for example a whole club's roster at the start of a season.
+ */
+public interface UserImportService {
+    /**
+     * Most row failures kept in a report, the rest are only counted.
+     */
+    int MAX_REPORTED_FAILURES = 1000;
+
+    /**
+     * Reads users from a CSV file and registers every valid row. The first line must be a header naming the
+     * username, password, firstName, lastName and age columns, in any order. Each row is checked against the same rules
+     * as the register page, and rows that fail are reported instead of stopping the import.
+     * @param csv - Reader over the CSV file, it is read once from start to end
+     * @return counts of the rows read and saved along with the reason each failed row was not saved
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the header is missing one of the columns
+     */
+    UserImportReport importUsers(Reader csv) throws IOException;
+}
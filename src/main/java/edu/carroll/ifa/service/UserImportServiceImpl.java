@@ -0,0 +1,268 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import edu.carroll.ifa.web.form.RegisterOrUpdateForm;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * This class imports users from a CSV file without holding the whole file in memory. Rows are read and validated one
+ * at a time and saved in batches: each batch checks which usernames are taken with one query, hashes its passwords in
+ * parallel, and inserts its users in one transaction so Hibernate can send them as JDBC batches.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserImportServiceImpl.class);
+    private static final List<String> COLUMNS = List.of("username", "password", "firstname", "lastname", "age");
+    // BCrypt only looks at the first 72 bytes of a password
+    private static final int MAX_PASSWORD_LENGTH = 72;
+
+    private final UserRepository userRepo;
+    private final PasswordHasher passwordHasher;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final AgeBandCountService ageBandCounts;
+
+    /**
+     * Constructs a UserImportServiceImpl instance with the UserRepository.
+     * @param userRepo - UserRepository used to check usernames and save the users
+     * @param passwordHasher - PasswordHasher that hashes each batch of passwords
+     * @param validator - Validator that checks each row against the register form rules
+     * @param transactionManager - Transaction manager each batch is saved with
+     * @param batchSize - Number of rows saved per transaction
+     * @param ageBandCounts - AgeBandCountService the imported users are counted with
+     */
+    public UserImportServiceImpl(UserRepository userRepo, PasswordHasher passwordHasher, Validator validator,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${ifa.import.batch-size:500}") int batchSize,
+                                 AgeBandCountService ageBandCounts) {
+        this.userRepo = userRepo;
+        this.passwordHasher = passwordHasher;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.ageBandCounts = ageBandCounts;
+    }
+
+    /**
+     * Reads users from a CSV file and registers every valid row.
+     * @param csv - Reader over the CSV file, it is read once from start to end
+     * @return counts of the rows read and saved along with the reason each failed row was not saved
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the header is missing one of the columns
+     */
+    @Override
+    public UserImportReport importUsers(Reader csv) throws IOException {
+        final BufferedReader in = new BufferedReader(csv);
+        final Progress progress = new Progress();
+        final String header = in.readLine();
+        if (header == null) {
+            logger.info("importUsers: file was empty");
+            return progress.toReport();
+        }
+        final Map<String, Integer> columns = readHeader(header);
+
+        final List<ImportRow> batch = new ArrayList<>(batchSize);
+        long lineNumber = 1;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.rowsRead++;
+            final RegisterOrUpdateForm form;
+            try {
+                form = toForm(Csv.parseLine(line), columns);
+            } catch (IllegalArgumentException e) {
+                progress.fail(lineNumber, null, e.getMessage());
+                continue;
+            }
+            final String problem = validate(form);
+            if (problem != null) {
+                progress.fail(lineNumber, form.getUsername(), problem);
+                continue;
+            }
+            batch.add(new ImportRow(lineNumber, form, User.normalizeUsername(form.getUsername())));
+            if (batch.size() >= batchSize) {
+                importBatch(batch, progress);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, progress);
+        }
+        logger.info("importUsers: read {} rows, imported {} users, {} rows failed", progress.rowsRead, progress.imported, progress.failed);
+        return progress.toReport();
+    }
+
+    /**
+     * Saves one batch of valid rows, skipping usernames that are already taken.
+     * @param rows - Rows that passed validation
+     * @param progress - Progress of the import so far
+     */
+    private void importBatch(List<ImportRow> rows, Progress progress) {
+        // one query for the whole batch instead of one per row
+        final Set<String> taken = new HashSet<>(userRepo.findExistingNormalizedUsernames(
+                rows.stream().map(ImportRow::normalizedUsername).toList()));
+        final List<ImportRow> toSave = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            // add() also catches the same username showing up twice in this batch
+            if (!taken.add(row.normalizedUsername())) {
+                progress.fail(row.line(), row.form().getUsername(), "Username already exists");
+            } else {
+                toSave.add(row);
+            }
+        }
+        if (toSave.isEmpty()) {
+            return;
+        }
+
+        final List<String> hashes;
+        try {
+            hashes = passwordHasher.encodeAll(toSave.stream().map(row -> row.form().getPassword()).toList());
+        } catch (RejectedExecutionException e) {
+            logger.warn("importUsers: hashing pool stayed busy, {} rows were not imported", toSave.size());
+            for (ImportRow row : toSave) {
+                progress.fail(row.line(), row.form().getUsername(), "The server was too busy, import this row again later");
+            }
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                final List<User> users = new ArrayList<>(toSave.size());
+                for (int i = 0; i < toSave.size(); i++) {
+                    users.add(toUser(toSave.get(i), hashes.get(i)));
+                }
+                userRepo.saveAll(users);
+                ageBandCounts.recordAdded(users.stream().map(User::getAge).toList());
+            });
+            progress.imported += toSave.size();
+        } catch (DataAccessException e) {
+            // someone took one of the usernames since we checked, save the rows one at a time to find out which
+            logger.warn("importUsers: batch of {} users failed, retrying them one at a time", toSave.size());
+            for (int i = 0; i < toSave.size(); i++) {
+                final ImportRow row = toSave.get(i);
+                final User user = toUser(row, hashes.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        userRepo.save(user);
+                        ageBandCounts.recordAdded(List.of(user.getAge()));
+                    });
+                    progress.imported++;
+                } catch (DataAccessException rowFailure) {
+                    progress.fail(row.line(), row.form().getUsername(), "Username already exists");
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks a row against the register form rules and the rules registerUser adds on top of them.
+     * @param form - Row read from the file
+     * @return a description of everything wrong with the row, or null if it is valid
+     */
+    private String validate(RegisterOrUpdateForm form) {
+        final List<String> problems = validator.validate(form).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (form.getPassword() != null && form.getPassword().length() > MAX_PASSWORD_LENGTH) {
+            problems.add("Password must be at most " + MAX_PASSWORD_LENGTH + " characters");
+        }
+        // the form lets ages up to 126 through but registerUser stops short of TOO_OLD_AGE, ages past 126 already failed
+        if (form.getAge() != null && form.getAge() >= UserService.TOO_OLD_AGE && form.getAge() <= 126) {
+            problems.add("The value must be less than " + UserService.TOO_OLD_AGE);
+        }
+        return problems.isEmpty() ? null : String.join("; ", problems);
+    }
+
+    private static Map<String, Integer> readHeader(String header) {
+        final Map<String, Integer> columns = new HashMap<>();
+        final List<String> names = Csv.parseLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("The header is missing the " + column + " column");
+            }
+        }
+        return columns;
+    }
+
+    private static RegisterOrUpdateForm toForm(List<String> fields, Map<String, Integer> columns) {
+        final RegisterOrUpdateForm form = new RegisterOrUpdateForm();
+        form.setUsername(field(fields, columns, "username"));
+        form.setPassword(field(fields, columns, "password"));
+        form.setFirstName(field(fields, columns, "firstname"));
+        form.setLastName(field(fields, columns, "lastname"));
+        final String age = field(fields, columns, "age");
+        if (age != null) {
+            try {
+                form.setAge(Integer.valueOf(age.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Age must be a whole number");
+            }
+        }
+        return form;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        final int index = columns.get(column);
+        // a short row or an empty field is treated the same as a missing value on the register page
+        return index < fields.size() && !fields.get(index).isEmpty() ? fields.get(index) : null;
+    }
+
+    private static User toUser(ImportRow row, String hashedPassword) {
+        final RegisterOrUpdateForm form = row.form();
+        final User user = new User(form.getUsername(), hashedPassword, form.getFirstName(), form.getLastName(), form.getAge());
+        // imported players get a full retention window before they count as inactive
+        user.setLastActiveAt(Instant.now());
+        return user;
+    }
+
+    private record ImportRow(long line, RegisterOrUpdateForm form, String normalizedUsername) {
+    }
+
+    private static final class Progress {
+        private int rowsRead;
+        private int imported;
+        private int failed;
+        private final List<UserImportReport.RowFailure> failures = new ArrayList<>();
+
+        private void fail(long line, String username, String reason) {
+            failed++;
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(new UserImportReport.RowFailure(line, username, reason));
+            }
+        }
+
+        private UserImportReport toReport() {
+            return new UserImportReport(rowsRead, imported, failed, List.copyOf(failures));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package edu.carroll.ifa.service;
+
+/**
+ * Removes accounts that nobody has used for longer than the retention window, for example at the end of a season.
+ */
+public interface UserPurgeService {
+    /**
+     * Outcome of a purge.
+     * @param stamped - Number of users with no recorded activity that were given a full retention window from now
+     * @param deleted - Number of inactive users deleted
+     */
+    record Result(int stamped, int deleted) {
+    }
+
+    /**
+     * Deletes every user who has not registered or logged in within the retention window. Users from before activity
+     * was recorded are not deleted, they are stamped as active now and become eligible once the window passes.
+     * @return how many users were stamped and deleted
+     */
+    Result purgeInactiveUsers();
+}
@@ -0,0 +1,139 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.repo.UserKey;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class purges inactive users in bounded batches. Each batch is one short transaction that finds and deletes
+ * at most batch-size rows by id, so a purge of thousands of accounts never holds locks on a large part of the table
+ * and never loads the users into the persistence context.
+ */
+@Service
+public class UserPurgeServiceImpl implements UserPurgeService {
+    private static final Logger logger = LoggerFactory.getLogger(UserPurgeServiceImpl.class);
+
+    private final UserRepository userRepo;
+    private final UserCache userCache;
+    private final RequestUserLookups requestLookups;
+    private final Duration retention;
+    private final int batchSize;
+    private final TransactionTemplate transactionTemplate;
+    private final AgeBandCountService ageBandCounts;
+    private final JuggleLeaderboard juggleLeaderboard;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Constructs a UserPurgeServiceImpl instance with the UserRepository.
+     * @param userRepo - UserRepository used to find and delete the users
+     * @param userCache - UserCache the deleted users are dropped from
+     * @param requestLookups - RequestUserLookups the deleted users are dropped from, when purging from a request
+     * @param retentionDays - Days a user may go without logging in before they are purged
+     * @param batchSize - Number of users stamped or deleted per transaction
+     * @param transactionManager - Transaction manager each batch runs in
+     * @param ageBandCounts - AgeBandCountService the deleted users are uncounted from
+     * @param juggleLeaderboard - JuggleLeaderboard the deleted users are taken off
+     */
+    public UserPurgeServiceImpl(UserRepository userRepo, UserCache userCache, RequestUserLookups requestLookups,
+                                @Value("${ifa.purge.retention-days:365}") long retentionDays,
+                                @Value("${ifa.purge.batch-size:500}") int batchSize,
+                                PlatformTransactionManager transactionManager, AgeBandCountService ageBandCounts,
+                                JuggleLeaderboard juggleLeaderboard) {
+        this.userRepo = userRepo;
+        this.userCache = userCache;
+        this.requestLookups = requestLookups;
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = batchSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ageBandCounts = ageBandCounts;
+        this.juggleLeaderboard = juggleLeaderboard;
+    }
+
+    /**
+     * Runs the purge on the schedule set by ifa.purge.cron, switched off by default.
+     */
+    @Scheduled(cron = "${ifa.purge.cron:-}")
+    public void scheduledPurge() {
+        purgeInactiveUsers();
+    }
+
+    /**
+     * Deletes every user who has not registered or logged in within the retention window.
+     * @return how many users were stamped and deleted, both 0 if a purge was already running
+     */
+    @Override
+    public Result purgeInactiveUsers() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("purgeInactiveUsers: a purge is already running");
+            return new Result(0, 0);
+        }
+        try {
+            final Instant now = Instant.now();
+            final int stamped = stampUnknownActivity(now);
+            final int deleted = deleteInactive(now.minus(retention));
+            logger.info("purgeInactiveUsers: stamped {} users without activity, deleted {} users inactive for {} days",
+                    stamped, deleted, retention.toDays());
+            return new Result(stamped, deleted);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Gives users from before activity was recorded a full retention window starting now.
+     * @param now - Time the purge started
+     * @return the number of users stamped
+     */
+    private int stampUnknownActivity(Instant now) {
+        int stamped = 0;
+        Integer batch;
+        // reading and writing in one read-write transaction keeps the reads on the primary, a lagging replica would
+        // keep handing back users that were already stamped
+        while ((batch = transactionTemplate.execute(status -> {
+            final List<Integer> ids = userRepo.findIdsWithoutLastActiveAt(PageRequest.of(0, batchSize));
+            return ids.isEmpty() ? 0 : userRepo.updateLastActiveAt(ids, now);
+        })) > 0) {
+            stamped += batch;
+        }
+        return stamped;
+    }
+
+    /**
+     * Deletes the users inactive since before the cutoff, one batch at a time.
+     * @param cutoff - Users last active before this time are deleted
+     * @return the number of users deleted
+     */
+    private int deleteInactive(Instant cutoff) {
+        int deleted = 0;
+        List<UserKey> batch;
+        while (!(batch = transactionTemplate.execute(status -> {
+            final List<UserKey> users = userRepo.findByLastActiveAtBeforeOrderByLastActiveAtAsc(cutoff, PageRequest.of(0, batchSize));
+            if (!users.isEmpty()) {
+                userRepo.deleteByIds(users.stream().map(UserKey::getId).toList());
+                ageBandCounts.recordRemoved(users.stream().map(UserKey::getAge).toList());
+                juggleLeaderboard.recordRemoved(users.stream().map(UserKey::getId).toList());
+            }
+            return users;
+        })).isEmpty()) {
+            for (UserKey user : batch) {
+                userCache.invalidate(user.getNormalizedUsername());
+                requestLookups.forget(user.getNormalizedUsername());
+            }
+            deleted += batch.size();
+            logger.debug("deleteInactive: deleted a batch of {} users", batch.size());
+        }
+        return deleted;
+    }
+}
@@ -2,6 +2,8 @@ package edu.carroll.ifa.service;
 
 import edu.carroll.ifa.jpa.model.User;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface which has methods that are used in the UserServiceImpl class to help manage the information in the database
  */
@@ -21,6 +23,16 @@ public interface UserService {
      */
     boolean validateUser(String username, String password);
 
+    /**
+     * Given a username and a raw password, look the user up and hand the password check off to the hashing pool
+     * without waiting for it to finish.
+     * @param username - Username provided by the user logging in
+     * @param password - Raw password provided by the user logging in
+     * @return a future that completes with true if data exists and matches what's on record, false otherwise. It
+     * completes exceptionally if the hashing pool is too busy to take the request.
+     */
+    CompletableFuture<Boolean> validateUserAsync(String username, String password);
+
     /**
      * Given a User object, save the information associated with the user to the database and hash the raw password.
      * @param user - User object that needs to be added to the database
@@ -54,7 +66,8 @@ public interface UserService {
      * @param user - User object that needs to update their password
      * @param updatedPassword - new password that the user wishes to use
      * @param oldPassword - old password that the user had
-     * @return true if password has been successfully updated, false otherwise
+     * @return true if password has been successfully updated, false otherwise, including when the user was changed by
+     * someone else since it was read
      */
     boolean updatePassword(User user, String updatedPassword, String oldPassword);
 
@@ -64,7 +77,8 @@ public interface UserService {
      * @param updatedFName - User's new first name
      * @param updatedLName - User's new last name
      * @param updatedAge - User's new age
-     * @return false if user already exists in database, true otherwise
+     * @return true if the user was updated or nothing changed, false if the information is invalid or the user was
+     * changed by someone else since it was read
      */
     boolean updateUser(User user, String updatedFName, String updatedLName, Integer updatedAge);
 
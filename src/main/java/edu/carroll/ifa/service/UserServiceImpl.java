@@ -1,31 +1,78 @@
 package edu.carroll.ifa.service;
 
+import edu.carroll.ifa.config.DataSourceRouting;
 import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.UserCredentials;
+import edu.carroll.ifa.jpa.repo.UserKey;
 import edu.carroll.ifa.jpa.repo.UserRepository;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
- * This class will allow us to interact with the database by making changes to the users information in the database
+ * This class will allow us to interact with the database by making changes to the users information in the database.
+ * Lookups run in read-only transactions, which lets Hibernate skip flushing and dirty checking and sends them to the
+ * replica when there is one. Methods that hash a password (logins, registering and changing a password) are left
+ * without a transaction of their own so a connection is not held for the whole BCrypt run, their single statements
+ * use the repository's transactions instead.
  */
 @Service
 public class UserServiceImpl implements UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
+    // Activity is only recorded to the day so that logins do not turn into a write every time
+    private static final Duration ACTIVITY_RESOLUTION = Duration.ofDays(1);
 
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     private final UserRepository userRepo;
+    private final PasswordHasher passwordHasher;
+    private final UserCache userCache;
+    private final RequestUserLookups requestLookups;
+    private final ReadYourWrites readYourWrites;
+    private final AgeBandCountService ageBandCounts;
+    private final JuggleLeaderboard juggleLeaderboard;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor loginWriteExecutor;
 
     /**
      * Constructs a new UserServiceImpl instance with the UserRepository
      * @param userRepo - UserRepository that is used in UserServiceImpl
+     * @param passwordHasher - PasswordHasher that runs the BCrypt work off the request threads
+     * @param userCache - UserCache that answers repeated lookups of the same user
+     * @param requestLookups - RequestUserLookups that remembers users already resolved in the current request
+     * @param readYourWrites - ReadYourWrites that sends a session's reads to the primary right after it writes
+     * @param ageBandCounts - AgeBandCountService that counts the members in each age band
+     * @param juggleLeaderboard - JuggleLeaderboard that ranks the members by age band
+     * @param transactionManager - PlatformTransactionManager used to save a new user and count it together
+     * @param loginWriteExecutor - Executor that saves what an async login changed, so the hashing pool only hashes
      */
-    public UserServiceImpl(UserRepository userRepo) {
+    public UserServiceImpl(UserRepository userRepo, PasswordHasher passwordHasher, UserCache userCache,
+                           RequestUserLookups requestLookups, ReadYourWrites readYourWrites,
+                           AgeBandCountService ageBandCounts, JuggleLeaderboard juggleLeaderboard,
+                           PlatformTransactionManager transactionManager,
+                           @Qualifier("applicationTaskExecutor") Executor loginWriteExecutor) {
         this.userRepo = userRepo;
+        this.passwordHasher = passwordHasher;
+        this.userCache = userCache;
+        this.requestLookups = requestLookups;
+        this.readYourWrites = readYourWrites;
+        this.ageBandCounts = ageBandCounts;
+        this.juggleLeaderboard = juggleLeaderboard;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loginWriteExecutor = loginWriteExecutor;
     }
 
     /**
@@ -37,31 +84,114 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public boolean validateUser(String username, String rawPassword) {
+        final UserCredentials u = findLoginCandidate(username, rawPassword);
+        if (u == null) {
+            return false;
+        }
+        // Checks to see if rawPassword matches the hashed password in the database using BCrypts matches function
+        if (!passwordMatches(rawPassword, u.getHashedPassword())) {
+            logger.debug("validateUser: password does not match");
+            return false;
+        }
+        // The raw password is only available right now, so this is our chance to bring an old hash up to strength
+        if (passwordHasher.needsRehash(u.getHashedPassword())) {
+            try {
+                saveRehashedPassword(u, username, passwordHasher.encode(rawPassword));
+            } catch (RejectedExecutionException e) {
+                logger.debug("validateUser: hashing pool busy, leaving the hash for '{}' as is", username);
+            }
+        }
+        recordActivity(u);
+        // User exists, and the provided password matches the hashed password in the database return true
+        logger.info("validateUser: successful login for {}", username);
+        return true;
+    }
+
+    /**
+     * Given a username and a password, look the user up on the calling thread and check the password on the hashing
+     * pool without waiting for it. Recording the login and saving a rehashed password are database writes, so they run
+     * on the loginWriteExecutor rather than holding up a hashing thread.
+     *
+     * @param username - Username of the person attempting to login
+     * @param rawPassword - Raw password provided by the user logging in
+     * @return a future that completes with true if data exists and matches what's on record, false otherwise
+     */
+    @Override
+    public CompletableFuture<Boolean> validateUserAsync(String username, String rawPassword) {
+        final UserCredentials u = findLoginCandidate(username, rawPassword);
+        if (u == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return passwordHasher.matchesAsync(rawPassword, u.getHashedPassword()).thenComposeAsync(matches -> {
+            if (!matches) {
+                logger.debug("validateUserAsync: password does not match");
+                return CompletableFuture.completedFuture(false);
+            }
+            logger.info("validateUserAsync: successful login for {}", username);
+            recordActivity(u);
+            if (!passwordHasher.needsRehash(u.getHashedPassword())) {
+                return CompletableFuture.completedFuture(true);
+            }
+            // A failed rehash should never fail the login, the old hash is still valid
+            return passwordHasher.encodeAsync(rawPassword).handleAsync((rehashed, failure) -> {
+                if (failure == null) {
+                    saveRehashedPassword(u, username, rehashed);
+                } else {
+                    logger.debug("validateUserAsync: could not rehash the password for '{}'", username);
+                }
+                return true;
+            }, loginWriteExecutor);
+        }, loginWriteExecutor);
+    }
+
+    /**
+     * Replaces a hash that was stored with an outdated work factor.
+     * @param credentials - Credentials of the user whose password was just matched
+     * @param username - Username of the user, for logging
+     * @param rehashedPassword - Same password hashed at the current work factor
+     */
+    private void saveRehashedPassword(UserCredentials credentials, String username, String rehashedPassword) {
+        userRepo.updateHashedPassword(credentials.getId(), rehashedPassword);
+        userCache.invalidate(User.normalizeUsername(username));
+        logger.info("validateUser: rehashed the password for '{}' at strength {}", username, passwordHasher.getStrength());
+    }
+
+    /**
+     * Records that a user just logged in, unless that was already recorded within the last day.
+     * @param credentials - Credentials of the user who logged in
+     */
+    private void recordActivity(UserCredentials credentials) {
+        final Instant now = Instant.now();
+        if (credentials.getLastActiveAt() == null || credentials.getLastActiveAt().isBefore(now.minus(ACTIVITY_RESOLUTION))) {
+            userRepo.updateLastActiveAt(credentials.getId(), now);
+        }
+    }
+
+    /**
+     * Looks up the id and hashed password of the user attempting to log in, without loading the rest of the user.
+     * @param username - Username of the person attempting to login
+     * @param rawPassword - Raw password provided by the user logging in
+     * @return the user's credentials if the login details are present and exactly one user matches, null otherwise
+     */
+    private UserCredentials findLoginCandidate(String username, String rawPassword) {
         logger.debug("validateUser: user '{}' attempted login", username);
         if (rawPassword == null) {
             logger.debug("validateUser: user '{}' provided null password", username);
-            return false;
+            return null;
         }
         if (username == null) {
             logger.debug("validateUser: User provided a null username");
-            return false;
+            return null;
         }
-        // Always do the lookup in a case-insensitive manner (lower-casing the data).
-        List<User> users = userRepo.findByUsernameIgnoreCase(username);
+        // Always do the lookup in a case-insensitive manner (normalizing the data).
+        requestLookups.recordQuery();
+        List<UserCredentials> users = readYourWrites.read(() -> userRepo.findCredentialsByNormalizedUsername(User.normalizeUsername(username)));
         // We expect 0 or 1, so if we get more than 1, bail out as this is an error we don't deal with properly.
         if (users.size() != 1) {
             logger.debug("validateUser: found {} users", users.size());
-            return false;
-        }
-        User u = users.get(0);
-        // Checks to see if rawPassword matches the hashed password in the database using BCrypts matches function
-        if (!passwordMatches(rawPassword, u.getHashedPassword())) {
-            logger.debug("validateUser: password does not match");
-            return false;
+            return null;
         }
-        // User exists, and the provided password matches the hashed password in the database return true
-        logger.info("validateUser: successful login for {}", username);
-        return true;
+        return users.get(0);
     }
 
     /**
@@ -86,17 +216,22 @@ public class UserServiceImpl implements UserService {
         }
 
         logger.debug("saveUser: user '{}' attempted to save their user information", user.getUsername());
-        List<User> existingUser = userRepo.findByUsernameIgnoreCase(user.getUsername());
-        //if the username list is empty then the username does not exist
-        if (!existingUser.isEmpty()) {
+        //only ask whether the username is taken, there's no need to load the other user
+        if (usernameExists(user.getNormalizedUsername())) {
             logger.debug("saveUser: user '{}' already exists", user.getUsername());
             return false;
         }
 
         // hashes and sets the user's password
-        user.setHashedPassword(passwordEncoder.encode(user.getHashedPassword()));
-        // saves the user to the database
-        userRepo.save(user);
+        user.setHashedPassword(passwordHasher.encode(user.getHashedPassword()));
+        user.setLastActiveAt(Instant.now());
+        // saves the user to the database and counts it in its age band, after the hashing so no connection waits on it
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepo.save(user);
+            ageBandCounts.recordAdded(List.of(user.getAge()));
+        });
+        requestLookups.remember(user.getNormalizedUsername(), user);
+        readYourWrites.recordWrite();
         logger.info("saveUser: user '{}' saved", user.getUsername());
         return true;
     }
@@ -105,9 +240,11 @@ public class UserServiceImpl implements UserService {
      * Given a User object, saves the updated information associated with the user to the database without altering
      * already set password. This method is only used to update the names or age of the user.
      * @param user - User object that needs to be added to the database
-     * @return false if user already exists in database, true otherwise
+     * @return true if the user was updated or nothing changed, false if the information is invalid or the user was
+     * changed by someone else since it was read
      */
     @Override
+    @Transactional
     public boolean updateUser(User user, String updatedFName, String updatedLName, Integer updatedAge) {
         //Checking to make sure the information given is valid
         if (user == null || updatedFName == null || updatedLName == null || updatedAge == null ||
@@ -115,12 +252,35 @@ public class UserServiceImpl implements UserService {
             logger.debug("saveUser: user gave bad info");
             return false;
         }
+        // only write the columns that changed
+        final Map<String, Object> changes = new LinkedHashMap<>();
+        if (!updatedFName.equals(user.getFirstName())) {
+            changes.put("firstName", updatedFName);
+        }
+        if (!updatedLName.equals(user.getLastName())) {
+            changes.put("lastName", updatedLName);
+        }
+        if (!updatedAge.equals(user.getAge())) {
+            changes.put("age", updatedAge);
+        }
+        if (changes.isEmpty()) {
+            // nothing to write, but a form filled in from an outdated copy still has to be turned away
+            if (!userRepo.findVersionById(user.getId()).equals(List.of(user.getVersion()))) {
+                logger.warn("updateUser: user '{}' was changed by someone else since version {}", user.getUsername(), user.getVersion());
+                return false;
+            }
+            logger.debug("saveUser: user '{}' did not change anything", user.getUsername());
+            return true;
+        }
+        if (!updateIfCurrent(user, changes)) {
+            return false;
+        }
+        ageBandCounts.recordAgeChange(user.getAge(), updatedAge);
+        juggleLeaderboard.recordAgeChange(user.getId(), updatedAge);
         // set the updated information for the user
         user.setFirstName(updatedFName);
         user.setLastName(updatedLName);
         user.setAge(updatedAge);
-        // saves the user to the database without hashing the password again
-        userRepo.save(user);
         logger.info("saveUser: user '{}' updated", user.getUsername());
         return true;
     }
@@ -146,9 +306,8 @@ public class UserServiceImpl implements UserService {
             return false;
         }
 
-        List<User> userList= userRepo.findByUsernameIgnoreCase(user.getUsername());
-        if (userList.size() != 1) {
-            logger.warn("updatedPassword: user '{}' does not exist or is duplicated", user.getUsername());
+        if (!usernameExists(User.normalizeUsername(user.getUsername()))) {
+            logger.warn("updatedPassword: user '{}' does not exist", user.getUsername());
             return false;
         }
 
@@ -157,35 +316,95 @@ public class UserServiceImpl implements UserService {
             return false;
         }
 
-        // sets the user's information
-        user.setHashedPassword(passwordEncoder.encode(updatedPassword));
+        // the new hash always uses the current work factor even if the old one was outdated
+        final String hashedPassword = passwordHasher.encode(updatedPassword);
 
-        // saves the user with the updated information to the database
-        userRepo.save(user);
+        // saves only the new password to the database
+        if (!updateIfCurrent(user, Map.of("hashedPassword", hashedPassword))) {
+            return false;
+        }
+        user.setHashedPassword(hashedPassword);
         logger.info("updatePassword: user'{}' has updated their password", user.getUsername());
 
         return true;
     }
 
+    /**
+     * Writes the changed columns of a user in one UPDATE, as long as nobody changed the user since it was read.
+     * On success the user's version is brought up to date so it can be updated again.
+     * @param user - User as it was read, with the version that was read
+     * @param changes - New values keyed by User attribute name
+     * @return true if the user was updated, false if it was changed by someone else or does not exist
+     */
+    private boolean updateIfCurrent(User user, Map<String, Object> changes) {
+        final String normalizedUsername = user.getNormalizedUsername();
+        final boolean updated = userRepo.updateColumnsIfCurrent(user.getId(), user.getVersion(), changes) == 1;
+        // either way our copy is out of date, so the next lookup should read the user again
+        forgetUser(normalizedUsername, false);
+        if (!updated) {
+            logger.warn("updateUser: user '{}' was changed by someone else since version {}", user.getUsername(), user.getVersion());
+            return false;
+        }
+        user.setVersion(user.getVersion() + 1);
+        readYourWrites.recordWrite();
+        return true;
+    }
+
+    /**
+     * Drops a changed or deleted user from the cache and from this request's lookups. It is done right away so the rest
+     * of the transaction reads the user again, and once more after the transaction commits, since a lookup from another
+     * request can read the old row and cache it until then.
+     * @param normalizedUsername - Username already run through User.normalizeUsername
+     * @param deleted - true if the user was deleted, so the rest of this request knows it is gone
+     */
+    private void forgetUser(String normalizedUsername, boolean deleted) {
+        final Runnable forget = () -> {
+            userCache.invalidate(normalizedUsername);
+            if (deleted) {
+                requestLookups.remember(normalizedUsername, null);
+            } else {
+                requestLookups.forget(normalizedUsername);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            forget.run();
+            return;
+        }
+        userCache.invalidate(normalizedUsername);
+        requestLookups.forget(normalizedUsername);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                forget.run();
+            }
+        });
+    }
+
     /**
      * Given a username, delete the User associated with the username provided.
      * @param username - Username provided by the user after they have already logged in
      * @return false if the user does not exist in the database, true otherwise
      */
     @Override
+    @Transactional
     public boolean deleteUser(String username) {
-        List<User> userList = userRepo.findByUsernameIgnoreCase(username);
-        // checks if the user with the given username exists in the database if not then return false
-        if (userList.size() != 1) {
-            logger.info("saveUser: user '{}' is duplicate or does not exist", username);
+        if (username == null) {
+            logger.debug("deleteUser: User provided a null username");
             return false;
         }
-
+        final String normalizedUsername = User.normalizeUsername(username);
         logger.debug("deleteUser: user '{}'is attempting to delete their information", username);
-        // gets the user with the given username
-        User user = userList.get(0);
-        // deletes the user from the database
-        userRepo.delete(user);
+        // only the id and age are read, to know which age band and leaderboard to take the user out of
+        final List<UserKey> keys = userRepo.findKeysByNormalizedUsername(normalizedUsername);
+        // deletes the user from the database in one statement, without loading it first
+        if (userRepo.deleteByNormalizedUsername(normalizedUsername) == 0) {
+            logger.info("deleteUser: user '{}' does not exist", username);
+            return false;
+        }
+        ageBandCounts.recordRemoved(keys.stream().map(UserKey::getAge).toList());
+        juggleLeaderboard.recordRemoved(keys.stream().map(UserKey::getId).toList());
+        forgetUser(normalizedUsername, true);
+        readYourWrites.recordWrite();
         logger.info("deleteUser: user '{}' deleted their information", username);
         return true;
     }
@@ -196,13 +415,27 @@ public class UserServiceImpl implements UserService {
      * @return the age of the user if the list is not empty, -1 otherwise
      */
     @Override
+    @Transactional(readOnly = true)
     public int getUserAge(String username) {
+        if (username == null) {
+            logger.debug("getUserAge: no username given");
+            return INVALID_AGE;
+        }
+        final String normalizedUsername = User.normalizeUsername(username);
+        // a user resolved earlier in this request, or cached by an earlier page view, already knows its age
+        final User knownUser = requestLookups.isResolved(normalizedUsername) ?
+                requestLookups.get(normalizedUsername) : userCache.get(normalizedUsername);
+        if (knownUser != null) {
+            logger.debug("getUserAge: user '{}' age served without a query", username);
+            return knownUser.getAge();
+        }
         // checks if the user with the given username exists in the database. If it does then return that user's age
-        List<User> users = userRepo.findByUsernameIgnoreCase(username);
-        if (!users.isEmpty()) {
+        requestLookups.recordQuery();
+        List<Integer> ages = readYourWrites.read(() -> userRepo.findAgeByNormalizedUsername(normalizedUsername));
+        if (!ages.isEmpty()) {
             //There should only be one so get first index
             logger.info("getUserAge: user '{}' successfully retrieved age", username);
-            return users.get(0).getAge();
+            return ages.get(0);
         }
 
         logger.debug("getUserAge: user '{}' has no age", username);
@@ -215,24 +448,65 @@ public class UserServiceImpl implements UserService {
      * @return the User object if the user is in the database, null otherwise
      */
     @Override
+    @Transactional(readOnly = true)
     public User getUserByUserName(String username){
         if (username == null) {
             return null;
         }
         // checks if the user with the given username exists in the database. If not then return null
-        List<User> users = userRepo.findByUsernameIgnoreCase(username);
-        if(users.size() != 1){
-            logger.info("getUserByUsername: user '{}' is duplicated", username);
+        final User user = findUser(User.normalizeUsername(username));
+        if (user == null) {
+            logger.info("getUserByUsername: user '{}' does not exist", username);
             return null;
         }
-        // returns the user with the given username
-        User user = users.get(0);
         logger.info("getUserByUsername: user '{}' has been retrieved", username);
         return user;
     }
 
     /**
-     * Given the rawPassword and the hashed password it checks to see that the passwords match.
+     * Looks a user up by the normalized form of their username, which is backed by its own unique index. A user already
+     * resolved in this request is returned as the same instance, otherwise the cache is tried before the database.
+     * @param normalizedUsername - Username already run through User.normalizeUsername
+     * @return the User if exactly one matches, null otherwise
+     */
+    private User findUser(String normalizedUsername) {
+        if (normalizedUsername == null) {
+            return null;
+        }
+        if (requestLookups.isResolved(normalizedUsername)) {
+            return requestLookups.get(normalizedUsername);
+        }
+        User user = userCache.get(normalizedUsername);
+        if (user == null) {
+            requestLookups.recordQuery();
+            final List<User> users = readYourWrites.read(() -> userRepo.findByNormalizedUsername(normalizedUsername));
+            // We expect 0 or 1, so if we get more than 1, bail out as this is an error we don't deal with properly.
+            if (users.size() == 1) {
+                user = users.get(0);
+                userCache.put(user);
+            } else if (users.size() > 1) {
+                logger.warn("findUser: username '{}' is duplicated", normalizedUsername);
+            }
+        }
+        requestLookups.remember(normalizedUsername, user);
+        return user;
+    }
+
+    /**
+     * Given a normalized username, determine if a user has it, without loading the user from the database. This check
+     * guards a write, so it always asks the primary. The cache and this request's lookups are skipped, since they may
+     * have come from a replica that is behind or still hold a user that was deleted on another node.
+     * @param normalizedUsername - Username already run through User.normalizeUsername
+     * @return true if the username is taken, false otherwise
+     */
+    private boolean usernameExists(String normalizedUsername) {
+        requestLookups.recordQuery();
+        return DataSourceRouting.onPrimary(() -> userRepo.existsByNormalizedUsername(normalizedUsername));
+    }
+
+    /**
+     * Given the rawPassword and the hashed password it checks to see that the passwords match. The check itself runs
+     * on the hashing pool and this method waits for it.
      * @param rawPassword - The raw password provided by the user
      * @param hashedPassword - The hashed password stored in the database
      * @return true if passwords match else false
@@ -242,6 +516,6 @@ public class UserServiceImpl implements UserService {
         if (rawPassword == null || hashedPassword == null) {
             return false;
         }
-        return passwordEncoder.matches(rawPassword, hashedPassword);
+        return passwordHasher.matches(rawPassword, hashedPassword);
     }
 }
@@ -0,0 +1,14 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.repo.UserSummary;
+
+import java.util.List;
+
+/**
+ * One page of the admin member list. To get the next page, pass nextAfterId (and nextAfterName when searching) back in.
+ * @param users - Users on this page
+ * @param nextAfterName - Name to continue a search after, null if this is the last page or the page is not a search
+ * @param nextAfterId - Id to continue after, null if this is the last page
+ */
+public record UserSummaryPage(List<UserSummary> users, String nextAfterName, Integer nextAfterId) {
+}
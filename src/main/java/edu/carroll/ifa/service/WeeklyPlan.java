@@ -0,0 +1,32 @@
+package edu.carroll.ifa.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A member's training schedule for one week, with the drills to do on each day.
+ * @param weekStart - Monday of the week the plan is for
+ * @param days - Every day of the week in order, rest days have no drills
+ */
+public record WeeklyPlan(LocalDate weekStart, List<Day> days) {
+
+    /**
+     * One day of the plan.
+     * @param day - Day of the week
+     * @param drills - Drills to do that day, empty on a rest day
+     */
+    public record Day(DayOfWeek day, List<DrillSet.Item> drills) {
+
+        /**
+         * Returns whether this is a rest day.
+         * @return true if there are no drills this day, false otherwise
+         */
+        @JsonIgnore
+        public boolean isRest() {
+            return drills.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package edu.carroll.ifa.web;
+
+import edu.carroll.ifa.jpa.model.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Interceptor that only lets the configured admin users through to the admin pages. Everyone else gets a 403, or a
+ * redirect to the login page if they are not logged in.
+ */
+@Component
+public class AdminInterceptor implements HandlerInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(AdminInterceptor.class);
+
+    private final Set<String> adminUsernames;
+
+    /**
+     * Constructs an AdminInterceptor with the usernames allowed in.
+     * @param adminUsernames - Comma separated usernames of the admins
+     */
+    public AdminInterceptor(@Value("${ifa.admin.usernames:}") String adminUsernames) {
+        this.adminUsernames = Arrays.stream(adminUsernames.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(User::normalizeUsername)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Checks the session username against the admin usernames before the admin page runs.
+     * @param request - Current request
+     * @param response - Current response
+     * @param handler - Handler that would run
+     * @return true if the user is an admin, false otherwise
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        final HttpSession session = request.getSession(false);
+        final String username = session == null ? null : (String) session.getAttribute("username");
+        if (username == null) {
+            response.sendRedirect(request.getContextPath() + "/login");
+            return false;
+        }
+        if (!adminUsernames.contains(User.normalizeUsername(username))) {
+            logger.warn("User '{}' tried to reach admin page {}", username, request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+package edu.carroll.ifa.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.carroll.ifa.service.DrillCatalog;
+import edu.carroll.ifa.service.DrillSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class keeps the JSON the drills API sends for each drill set. The JSON is written once per drill set with a
+ * streaming generator and kept as bytes with an ETag, so most API calls send cached bytes or a 304. Everything is
+ * dropped whenever the DrillCatalog content changes.
+ */
+@Component
+public class DrillJsonCache {
+    private static final Logger logger = LoggerFactory.getLogger(DrillJsonCache.class);
+
+    private final DrillCatalog drillCatalog;
+    private final JsonFactory jsonFactory;
+    private final Map<DrillSet, Body> bodies = new ConcurrentHashMap<>();
+    private volatile long catalogVersion;
+
+    /**
+     * Constructs a DrillJsonCache instance with the DrillCatalog.
+     * @param drillCatalog - DrillCatalog whose changes clear the cache
+     * @param objectMapper - ObjectMapper whose factory creates the JSON generators
+     */
+    public DrillJsonCache(DrillCatalog drillCatalog, ObjectMapper objectMapper) {
+        this.drillCatalog = drillCatalog;
+        this.jsonFactory = objectMapper.getFactory();
+        this.catalogVersion = drillCatalog.getVersion();
+    }
+
+    /**
+     * Returns the JSON for a drill set, writing it only if it is not cached yet.
+     * @param drillSet - Drill set to send
+     * @return the JSON and its ETag
+     */
+    public Body get(DrillSet drillSet) {
+        final long version = drillCatalog.getVersion();
+        if (version != catalogVersion) {
+            bodies.clear();
+            catalogVersion = version;
+            logger.debug("get: drill catalog changed, cleared the cached drill JSON");
+        }
+        return bodies.computeIfAbsent(drillSet, this::write);
+    }
+
+    /**
+     * Returns the number of drill sets cached.
+     * @return cached drill set count
+     */
+    public int size() {
+        return bodies.size();
+    }
+
+    private Body write(DrillSet drillSet) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("key", drillSet.key());
+            json.writeStringField("label", drillSet.label());
+            json.writeArrayFieldStart("drills");
+            for (DrillSet.Item drill : drillSet.drills()) {
+                json.writeStartObject();
+                json.writeStringField("name", drill.name());
+                json.writeStringField("description", drill.description());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            // only the output stream could fail, and a byte array never does
+            throw new UncheckedIOException(e);
+        }
+        final byte[] bytes = out.toByteArray();
+        // weak, since the same JSON may go out gzipped or not, and Tomcat won't compress a response with a strong ETag
+        return new Body(bytes, "W/\"" + DrillPageCache.digest(bytes) + "\"");
+    }
+
+    /**
+     * The JSON for a drill set.
+     * @param json - JSON encoded as UTF-8
+     * @param etag - Weak ETag of the JSON, quoted
+     */
+    public record Body(byte[] json, String etag) {
+    }
+}
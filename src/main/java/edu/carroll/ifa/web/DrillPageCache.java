@@ -0,0 +1,105 @@
+package edu.carroll.ifa.web;
+
+import edu.carroll.ifa.service.DrillCatalog;
+import edu.carroll.ifa.service.DrillSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * This class keeps the rendered drills page for each drill set, since the page shows nothing else about the user.
+ * Each page gets a strong ETag computed from its bytes, so a browser that already has it can be answered with a 304
+ * without rendering or sending anything. The pages are dropped whenever the DrillCatalog content changes, and at most
+ * maxPages are kept, past that pages are rendered for each request.
+ */
+@Component
+public class DrillPageCache {
+    private static final Logger logger = LoggerFactory.getLogger(DrillPageCache.class);
+
+    private final DrillCatalog drillCatalog;
+    private final int maxPages;
+    private final Map<DrillSet, Page> pages = new ConcurrentHashMap<>();
+    private volatile long catalogVersion;
+
+    /**
+     * Constructs a DrillPageCache instance with the DrillCatalog.
+     * @param drillCatalog - DrillCatalog whose changes clear the cache
+     * @param maxPages - Most pages kept, the catalog has at most one drill set per age
+     */
+    public DrillPageCache(DrillCatalog drillCatalog, @Value("${ifa.drills.max-cached-pages:128}") int maxPages) {
+        this.drillCatalog = drillCatalog;
+        this.maxPages = maxPages;
+        this.catalogVersion = drillCatalog.getVersion();
+    }
+
+    /**
+     * Returns the rendered page for a drill set, rendering it only if it is not cached yet.
+     * @param drillSet - Drill set the page shows
+     * @param render - Renders the page, called once per drill set until the catalog changes while there is room
+     * @return the rendered page and its ETag
+     */
+    public Page get(DrillSet drillSet, Supplier<String> render) {
+        final long version = drillCatalog.getVersion();
+        if (version != catalogVersion) {
+            // keys are the drill sets themselves, so a page rendered from an older set can never be served for a new
+            // one, clearing only frees the pages nobody will ask for again
+            pages.clear();
+            catalogVersion = version;
+            logger.debug("get: drill catalog changed, cleared the cached pages");
+        }
+        final Page cached = pages.get(drillSet);
+        if (cached != null) {
+            return cached;
+        }
+        if (pages.size() >= maxPages) {
+            logger.debug("get: {} pages cached already, rendering drill set '{}' without caching it", maxPages, drillSet.key());
+            return Page.of(render.get());
+        }
+        return pages.computeIfAbsent(drillSet, key -> Page.of(render.get()));
+    }
+
+    /**
+     * Returns the number of pages cached.
+     * @return cached page count
+     */
+    public int size() {
+        return pages.size();
+    }
+
+    /**
+     * A rendered page.
+     * @param html - Page encoded as UTF-8
+     * @param etag - Strong ETag of the page, quoted
+     */
+    public record Page(byte[] html, String etag) {
+        static Page of(String html) {
+            final byte[] bytes = html.getBytes(StandardCharsets.UTF_8);
+            return new Page(bytes, "\"" + digest(bytes) + "\"");
+        }
+    }
+
+    /**
+     * Returns a short hex digest of some bytes, for ETags.
+     * @param bytes - Bytes to digest
+     * @return the first half of their SHA-256 digest in hex
+     */
+    static String digest(byte[] bytes) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            // half the digest is plenty to tell a handful of pages apart
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
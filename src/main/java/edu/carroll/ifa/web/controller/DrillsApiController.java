@@ -0,0 +1,74 @@
+package edu.carroll.ifa.web.controller;
+
+import edu.carroll.ifa.service.DrillCatalog;
+import edu.carroll.ifa.service.DrillSet;
+import edu.carroll.ifa.service.UserService;
+import edu.carroll.ifa.web.DrillJsonCache;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * Controller class for version 1 of the drills API used by the mobile app. It sends the same drills as the
+ * "/soccerDrills" page as JSON.
+ */
+@RestController
+@RequestMapping("/api/v1/drills")
+public class DrillsApiController {
+    private static final Logger logger = LoggerFactory.getLogger(DrillsApiController.class);
+
+    private final UserService userService;
+    private final DrillCatalog drillCatalog;
+    private final DrillJsonCache drillJsonCache;
+    private final CacheControl cacheControl;
+
+    /**
+     * Constructs a DrillsApiController instance with the UserService and drill dependencies.
+     * @param userService - UserService used to find the logged in user's age
+     * @param drillCatalog - DrillCatalog the drills for the user's age are picked from
+     * @param drillJsonCache - DrillJsonCache holding the JSON for each drill set
+     * @param maxAgeSeconds - How long the app may use its copy before checking with us again
+     */
+    public DrillsApiController(UserService userService, DrillCatalog drillCatalog, DrillJsonCache drillJsonCache,
+                               @Value("${ifa.api.drills.max-age-seconds:300}") long maxAgeSeconds) {
+        this.userService = userService;
+        this.drillCatalog = drillCatalog;
+        this.drillJsonCache = drillJsonCache;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePrivate();
+    }
+
+    /**
+     * Handles the GET request for /api/v1/drills. It returns the drills for the logged in user's age. The response
+     * carries an ETag for the drill set, and Spring answers a request that sends it back with a 304 and no body.
+     * There is no Last-Modified, since which drill set is sent also depends on the user's age, which can change
+     * without the drills changing.
+     * @param session - HttpSession object for managing session information
+     * @return the drills as JSON
+     */
+    @GetMapping
+    public ResponseEntity<byte[]> drills(HttpSession session) {
+        String username = (String) session.getAttribute("username");
+        if (username == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Log in to see your drills");
+        }
+        final DrillSet drillSet = drillCatalog.drillsFor(userService.getUserAge(username));
+        final DrillJsonCache.Body body = drillJsonCache.get(drillSet);
+        logger.debug("drills: sending drill set '{}' to user '{}'", drillSet.key(), username);
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(body.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.json());
+    }
+}
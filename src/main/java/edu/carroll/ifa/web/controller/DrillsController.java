@@ -1,12 +1,28 @@
 package edu.carroll.ifa.web.controller;
 
+import edu.carroll.ifa.service.DrillCatalog;
+import edu.carroll.ifa.service.DrillSet;
 import edu.carroll.ifa.service.UserService;
+import edu.carroll.ifa.web.DrillPageCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Controller class for the page that displays the drills for an associated user based on their age.
@@ -14,25 +30,45 @@ import org.slf4j.LoggerFactory;
 @Controller
 public class DrillsController {
     private static final Logger logger = LoggerFactory.getLogger(DrillsController.class);
+    // the page is only for the logged in user and may change whenever the drills do, so browsers keep it but always
+    // check the ETag with us before using it
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+    // the site is only in English, and rendering in the request's locale would cache a page per Accept-Language
+    private static final Locale PAGE_LOCALE = Locale.ENGLISH;
+
     private final UserService userService;
+    private final DrillCatalog drillCatalog;
+    private final DrillPageCache drillPageCache;
+    private final ITemplateEngine templateEngine;
 
     /**
-     * Constructs a DrillsController instance with the UserService dependency.
+     * Constructs a DrillsController instance with the UserService and drill page dependencies.
      * @param userService - UserService implementation used in the DrillsController
+     * @param drillCatalog - DrillCatalog the drills for the user's age are picked from
+     * @param drillPageCache - DrillPageCache holding the rendered page for each drill set
+     * @param templateEngine - Thymeleaf engine that renders a page the cache does not have yet
      */
-    public DrillsController(UserService userService) {
+    public DrillsController(UserService userService, DrillCatalog drillCatalog, DrillPageCache drillPageCache,
+                            ITemplateEngine templateEngine) {
         this.userService = userService;
+        this.drillCatalog = drillCatalog;
+        this.drillPageCache = drillPageCache;
+        this.templateEngine = templateEngine;
     }
 
     /**
      * Handles a GET request for the "/soccerDrills" page. It retreives the user's age based on the session username
-     * and adds it to the model.
-     * @param model - Model object used for storing attributes
+     * and sends the page for the drills of that age. The page is rendered once per drill set and cached, and a browser
+     * that sends the current ETag gets a 304 instead.
      * @param session - HttpSession object for managing session information
-     * @return the soccerDrills html page
+     * @param request - Request being handled
+     * @param response - Response the page is written to
+     * @return a redirect to the login page if nobody is logged in, null once the page has been sent
+     * @throws IOException if the page cannot be written
      */
     @GetMapping("/soccerDrills")
-    public String soccerDrills(Model model, HttpSession session) {
+    public String soccerDrills(HttpSession session, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
         // get the username saved in the session
         String username = (String) session.getAttribute("username");
 
@@ -41,11 +77,34 @@ public class DrillsController {
             return "redirect:/login";
         }
 
-        // get the age of the user with the given username
+        // get the age of the user with the given username and the drills for that age
         int userAge = userService.getUserAge(username);
-        // add the age to the model
-        model.addAttribute("userAge", userAge);
+        final DrillSet drillSet = drillCatalog.drillsFor(userAge);
+        final DrillPageCache.Page page = drillPageCache.get(drillSet, () -> render(drillSet, request, response));
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        // sets the ETag and answers 304 if the browser already has this page
+        if (new ServletWebRequest(request, response).checkNotModified(page.etag())) {
+            logger.debug("/soccerDrills: user '{}' already has their drills page", username);
+            return null;
+        }
+        response.setContentType(MediaType.TEXT_HTML_VALUE + ";charset=UTF-8");
+        response.setContentLength(page.html().length);
+        response.getOutputStream().write(page.html());
         logger.info("/soccerDrills: user '{}' accessed their drills", username);
-        return "soccerDrills";
+        return null;
+    }
+
+    private String render(DrillSet drillSet, HttpServletRequest request, HttpServletResponse response) {
+        // the page is shared between users, so links in it must never carry this user's session id
+        final HttpServletResponse noUrlRewriting = new HttpServletResponseWrapper(response) {
+            @Override
+            public String encodeURL(String url) {
+                return url;
+            }
+        };
+        final WebContext context = new WebContext(JakartaServletWebApplication.buildApplication(request.getServletContext())
+                .buildExchange(request, noUrlRewriting), PAGE_LOCALE, Map.of("drillSet", drillSet));
+        return templateEngine.process("soccerDrills", context);
     }
 }
@@ -0,0 +1,77 @@
+package edu.carroll.ifa.web.controller;
+
+import edu.carroll.ifa.jpa.model.AgeBand;
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.service.JuggleLeaderboard;
+import edu.carroll.ifa.service.LeaderboardEntry;
+import edu.carroll.ifa.service.UserService;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Controller class for the juggling leaderboard page, which shows the best jugglers of the user's age band and where
+ * the user stands.
+ */
+@Controller
+public class LeaderboardController {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardController.class);
+
+    private final UserService userService;
+    private final JuggleLeaderboard juggleLeaderboard;
+    private final int topSize;
+
+    /**
+     * Constructs a LeaderboardController instance with the UserService and JuggleLeaderboard dependencies.
+     * @param userService - UserService used to find the logged in user
+     * @param juggleLeaderboard - JuggleLeaderboard the rankings are read from
+     * @param topSize - Number of players shown on the leaderboard
+     */
+    public LeaderboardController(UserService userService, JuggleLeaderboard juggleLeaderboard,
+                                 @Value("${ifa.leaderboards.top-size:10}") int topSize) {
+        this.userService = userService;
+        this.juggleLeaderboard = juggleLeaderboard;
+        this.topSize = topSize;
+    }
+
+    /**
+     * Handles the GET request for the /leaderboard page and displays the juggling leaderboard for the logged in
+     * user's age band.
+     * @param session - HttpSession object for managing session information
+     * @param model - Model for storing attributes
+     * @return leaderboard page, or a redirect to the login page if nobody is logged in
+     */
+    @GetMapping("/leaderboard")
+    public String leaderboard(HttpSession session, Model model) {
+        String username = (String) session.getAttribute("username");
+        User user = username == null ? null : userService.getUserByUserName(username);
+        if (user == null) {
+            logger.info("leaderboard: nobody is logged in, redirecting to login");
+            return "redirect:/login";
+        }
+        final AgeBand band = AgeBand.of(user.getAge());
+        model.addAttribute("band", band);
+        final List<LeaderboardEntry> top = juggleLeaderboard.top(band, topSize);
+        model.addAttribute("top", top);
+        model.addAttribute("ranks", ranks(top));
+        model.addAttribute("standing", juggleLeaderboard.standingOf(user.getId()));
+        return "leaderboard";
+    }
+
+    // players with the same juggles share a rank, the same way their standing is ranked
+    private static List<Integer> ranks(List<LeaderboardEntry> top) {
+        final List<Integer> ranks = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            final boolean tied = i > 0 && top.get(i).juggles() == top.get(i - 1).juggles();
+            ranks.add(tied ? ranks.get(i - 1) : i + 1);
+        }
+        return ranks;
+    }
+}
@@ -1,5 +1,6 @@
 package edu.carroll.ifa.web.controller;
 
+import edu.carroll.ifa.service.PasswordHasher;
 import edu.carroll.ifa.service.UserService;
 import edu.carroll.ifa.web.form.LoginForm;
 import jakarta.servlet.http.HttpSession;
@@ -15,6 +16,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletionException;
+
 /**
  * Controller class for the login page. It will check to see if the user is valid and then redirect them to the loginSuccess page.
  * It will also make sure that someone in the loginSuccess page is a valid user.
@@ -59,8 +62,20 @@ public class LoginController {
             logger.debug("There were {} errors", result.getErrorCount());
             return "login";
         }
+        // the password check runs on the hashing pool, so wait for it here
+        final boolean validUser;
+        try {
+            validUser = userService.validateUserAsync(loginForm.getUsername(), loginForm.getPassword()).join();
+        } catch (CompletionException e) {
+            if (!PasswordHasher.isCapacityFailure(e)) {
+                throw e;
+            }
+            result.addError(new ObjectError("globalError", "Too many people are logging in right now, please try again"));
+            logger.warn("login for '{}' turned away, the hashing pool is saturated", loginForm.getUsername());
+            return "login";
+        }
         // checks if the user's name and password are invalid
-        if (!userService.validateUser(loginForm.getUsername(), loginForm.getPassword())) {
+        if (!validUser) {
             // adds and error message to the result
             result.addError(new ObjectError("globalError", "Username and password do not match known users"));
             logger.info("login failed username or password do not match known users");
@@ -0,0 +1,60 @@
+package edu.carroll.ifa.web.controller;
+
+import edu.carroll.ifa.jpa.model.RollupPeriod;
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.service.ProgressChart;
+import edu.carroll.ifa.service.ProgressRollupService;
+import edu.carroll.ifa.service.UserService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Controller class for the logged in user's progress chart data.
+ */
+@RestController
+public class ProgressController {
+    private final UserService userService;
+    private final ProgressRollupService progressRollupService;
+    private final int maxPoints;
+
+    /**
+     * Constructs a ProgressController instance with the UserService and ProgressRollupService dependencies.
+     * @param userService - UserService used to find the logged in user
+     * @param progressRollupService - ProgressRollupService the chart is read from
+     * @param maxPoints - Most periods one chart may cover
+     */
+    public ProgressController(UserService userService, ProgressRollupService progressRollupService,
+                              @Value("${ifa.progress.max-points:366}") int maxPoints) {
+        this.userService = userService;
+        this.progressRollupService = progressRollupService;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Handles the GET request for /progress/chart. It returns the logged in user's totals for the most recent
+     * periods, read from the rollups only.
+     * @param period - Kind of period, DAY, WEEK or MONTH
+     * @param points - Number of periods to return
+     * @param session - HttpSession object for managing session information
+     * @return the chart data
+     */
+    @GetMapping("/progress/chart")
+    public ProgressChart progressChart(@RequestParam(name = "period", defaultValue = "WEEK") RollupPeriod period,
+                                       @RequestParam(name = "points", defaultValue = "12") int points,
+                                       HttpSession session) {
+        String username = (String) session.getAttribute("username");
+        User user = username == null ? null : userService.getUserByUserName(username);
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Log in to see your progress");
+        }
+        if (points < 1 || points > maxPoints) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "points must be between 1 and " + maxPoints);
+        }
+        return progressRollupService.getChart(user.getId(), period, points);
+    }
+}
@@ -0,0 +1,71 @@
+package edu.carroll.ifa.web.controller;
+
+import edu.carroll.ifa.jpa.model.AgeBand;
+import edu.carroll.ifa.service.AgeBandCountService;
+import edu.carroll.ifa.service.QueryStats;
+import edu.carroll.ifa.service.QueryStatsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Controller class for the admin statistics pages. Only admins get this far, see AdminInterceptor.
+ */
+@RestController
+@RequestMapping("/admin/stats")
+public class StatsAdminController {
+    private final QueryStatsService queryStatsService;
+    private final AgeBandCountService ageBandCountService;
+
+    /**
+     * Constructs a StatsAdminController instance with the statistics services.
+     * @param queryStatsService - QueryStatsService used to read the query statistics
+     * @param ageBandCountService - AgeBandCountService used to read the members per age band
+     */
+    public StatsAdminController(QueryStatsService queryStatsService, AgeBandCountService ageBandCountService) {
+        this.queryStatsService = queryStatsService;
+        this.ageBandCountService = ageBandCountService;
+    }
+
+    /**
+     * Handles the GET request for /admin/stats/queries. It returns the query statistics since startup or the last reset.
+     * @return the query statistics
+     */
+    @GetMapping("/queries")
+    public QueryStats queryStats() {
+        return queryStatsService.getStats();
+    }
+
+    /**
+     * Handles the POST request for /admin/stats/queries/reset. It starts the query statistics over from zero.
+     */
+    @PostMapping("/queries/reset")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void resetQueryStats() {
+        queryStatsService.reset();
+    }
+
+    /**
+     * Handles the GET request for /admin/stats/age-bands. It returns the number of members in each drill age band.
+     * @return member count for every band
+     */
+    @GetMapping("/age-bands")
+    public Map<AgeBand, Long> ageBandCounts() {
+        return ageBandCountService.getCounts();
+    }
+
+    /**
+     * Handles the POST request for /admin/stats/age-bands/reconcile. It recounts the members in each age band from
+     * the user table and corrects the counters.
+     * @return the corrected member count for every band
+     */
+    @PostMapping("/age-bands/reconcile")
+    public Map<AgeBand, Long> reconcileAgeBandCounts() {
+        return ageBandCountService.reconcile();
+    }
+}
@@ -0,0 +1,77 @@
+package edu.carroll.ifa.web.controller;
+
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.service.TrainingLogBuffer;
+import edu.carroll.ifa.service.TrainingLogEntry;
+import edu.carroll.ifa.service.UserService;
+import edu.carroll.ifa.web.form.TrainingLogForm;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Controller class for logging a drill as done from the drills page.
+ */
+@Controller
+public class TrainingLogController {
+    private static final Logger logger = LoggerFactory.getLogger(TrainingLogController.class);
+    // seconds a player is asked to wait before logging again when the buffer is full
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final UserService userService;
+    private final TrainingLogBuffer trainingLogBuffer;
+
+    /**
+     * Constructs a TrainingLogController instance with the UserService and TrainingLogBuffer dependencies.
+     * @param userService - UserService used to find the logged in user
+     * @param trainingLogBuffer - TrainingLogBuffer the logged drills are handed to
+     */
+    public TrainingLogController(UserService userService, TrainingLogBuffer trainingLogBuffer) {
+        this.userService = userService;
+        this.trainingLogBuffer = trainingLogBuffer;
+    }
+
+    /**
+     * Handles the POST request for /trainingLog. The drill is handed to the buffer and written to the database with
+     * the next batch, so the player is sent back to the drills page right away.
+     * @param trainingLogForm - TrainingLogForm with the drill and what was counted
+     * @param result - BindingResult for validating the form information
+     * @param session - HttpSession object for managing session information
+     * @param response - HttpServletResponse a full buffer is reported on
+     * @return a redirect to the drills page, to the login page if nobody is logged in, or null if the buffer was full
+     * @throws IOException if the error response can't be sent
+     */
+    @PostMapping("/trainingLog")
+    public String logDrill(@Valid @ModelAttribute TrainingLogForm trainingLogForm, BindingResult result,
+                           HttpSession session, HttpServletResponse response) throws IOException {
+        String username = (String) session.getAttribute("username");
+        User user = username == null ? null : userService.getUserByUserName(username);
+        if (user == null) {
+            logger.info("logDrill: nobody is logged in, redirecting to login");
+            return "redirect:/login";
+        }
+        if (result.hasErrors()) {
+            logger.info("logDrill: user '{}' sent an invalid training log", username);
+            return "redirect:/soccerDrills";
+        }
+        final TrainingLogEntry entry = new TrainingLogEntry(user.getId(), trainingLogForm.getDrill(),
+                trainingLogForm.getJuggles(), trainingLogForm.getMinutes(), trainingLogForm.getShots(), Instant.now());
+        if (!trainingLogBuffer.submit(entry)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many drills are being logged, please try again");
+            return null;
+        }
+        return "redirect:/soccerDrills";
+    }
+}
@@ -0,0 +1,50 @@
+package edu.carroll.ifa.web.controller;
+
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.service.TrainingPlanService;
+import edu.carroll.ifa.service.UserService;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+
+/**
+ * Controller class for the page that shows the logged in user's training plan for the week.
+ */
+@Controller
+public class TrainingPlanController {
+    private static final Logger logger = LoggerFactory.getLogger(TrainingPlanController.class);
+
+    private final UserService userService;
+    private final TrainingPlanService trainingPlanService;
+
+    /**
+     * Constructs a TrainingPlanController instance with the UserService and TrainingPlanService dependencies.
+     * @param userService - UserService used to find the logged in user
+     * @param trainingPlanService - TrainingPlanService the plan is read from
+     */
+    public TrainingPlanController(UserService userService, TrainingPlanService trainingPlanService) {
+        this.userService = userService;
+        this.trainingPlanService = trainingPlanService;
+    }
+
+    /**
+     * Handles the GET request for the /trainingPlan page and displays this week's plan for the logged in user.
+     * @param session - HttpSession object for managing session information
+     * @param model - Model for storing attributes
+     * @return trainingPlan page, or a redirect to the login page if nobody is logged in
+     */
+    @GetMapping("/trainingPlan")
+    public String trainingPlan(HttpSession session, Model model) {
+        String username = (String) session.getAttribute("username");
+        User user = username == null ? null : userService.getUserByUserName(username);
+        if (user == null) {
+            logger.info("trainingPlan: nobody is logged in, redirecting to login");
+            return "redirect:/login";
+        }
+        model.addAttribute("plan", trainingPlanService.getPlan(user));
+        return "trainingPlan";
+    }
+}
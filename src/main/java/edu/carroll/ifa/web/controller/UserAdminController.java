@@ -0,0 +1,146 @@
+package edu.carroll.ifa.web.controller;
+
+import edu.carroll.ifa.service.UserDirectoryService;
+import edu.carroll.ifa.service.UserExportService;
+import edu.carroll.ifa.service.UserImportReport;
+import edu.carroll.ifa.service.UserImportService;
+import edu.carroll.ifa.service.UserPurgeService;
+import edu.carroll.ifa.service.UserSummaryPage;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Controller class for the admin user pages. Only admins get this far, see AdminInterceptor.
+ */
+@RestController
+@RequestMapping("/admin/users")
+public class UserAdminController {
+    private static final Logger logger = LoggerFactory.getLogger(UserAdminController.class);
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+    private final UserDirectoryService userDirectoryService;
+    private final UserPurgeService userPurgeService;
+
+    /**
+     * Constructs a UserAdminController instance with the admin service dependencies.
+     * @param userImportService - UserImportService used to import users in bulk
+     * @param userExportService - UserExportService used to export the roster
+     * @param userDirectoryService - UserDirectoryService used to browse and search the members
+     * @param userPurgeService - UserPurgeService used to remove inactive members
+     */
+    public UserAdminController(UserImportService userImportService, UserExportService userExportService,
+                               UserDirectoryService userDirectoryService, UserPurgeService userPurgeService) {
+        this.userImportService = userImportService;
+        this.userExportService = userExportService;
+        this.userDirectoryService = userDirectoryService;
+        this.userPurgeService = userPurgeService;
+    }
+
+    /**
+     * Handles the GET request for /admin/users. It returns a page of members in id order.
+     * @param after - nextAfterId from the previous page, not given for the first page
+     * @param size - Number of members wanted on the page
+     * @return the page of members
+     */
+    @GetMapping
+    public UserSummaryPage listUsers(@RequestParam(name = "after", required = false) Integer after,
+                                     @RequestParam(name = "size", defaultValue = "50") int size) {
+        return userDirectoryService.listUsers(after, size);
+    }
+
+    /**
+     * Handles the GET request for /admin/users/search. It returns a page of members whose first or last name starts
+     * with the prefix.
+     * @param name - firstName or lastName, lastName if not given
+     * @param prefix - Start of the name to search for
+     * @param afterName - nextAfterName from the previous page, not given for the first page
+     * @param afterId - nextAfterId from the previous page, not given for the first page
+     * @param size - Number of members wanted on the page
+     * @return the page of members
+     */
+    @GetMapping("/search")
+    public UserSummaryPage searchUsers(@RequestParam(name = "name", defaultValue = "lastName") String name,
+                                       @RequestParam("prefix") String prefix,
+                                       @RequestParam(name = "afterName", required = false) String afterName,
+                                       @RequestParam(name = "afterId", required = false) Integer afterId,
+                                       @RequestParam(name = "size", defaultValue = "50") int size) {
+        final UserDirectoryService.NameField field;
+        if ("firstName".equals(name)) {
+            field = UserDirectoryService.NameField.FIRST_NAME;
+        } else if ("lastName".equals(name)) {
+            field = UserDirectoryService.NameField.LAST_NAME;
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Can only search by firstName or lastName");
+        }
+        return userDirectoryService.searchUsers(field, prefix, afterName, afterId, size);
+    }
+
+    /**
+     * Handles the GET request for /admin/users/export. It streams every member into the response as a download,
+     * without their password hashes.
+     * @param format - csv or json, csv if not given
+     * @param response - Response the roster is written to
+     * @throws IOException if the response cannot be written
+     */
+    @GetMapping("/export")
+    public void exportUsers(@RequestParam(name = "format", defaultValue = "csv") String format,
+                            HttpServletResponse response) throws IOException {
+        final UserExportService.Format exportFormat;
+        try {
+            exportFormat = UserExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format '" + format + "'");
+        }
+        response.setContentType(exportFormat == UserExportService.Format.JSON ? "application/json" : "text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"users." + exportFormat.name().toLowerCase(Locale.ROOT) + "\"");
+        userExportService.exportUsers(exportFormat, response.getOutputStream());
+    }
+
+    /**
+     * Handles the POST request for /admin/users/import. It registers every valid user in the uploaded CSV file.
+     * @param file - CSV file with a username, password, firstName, lastName and age header
+     * @return report of the users imported and the rows that failed
+     * @throws IOException if the upload cannot be read
+     */
+    @PostMapping("/import")
+    public UserImportReport importUsers(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file is empty");
+        }
+        logger.info("importUsers: importing users from '{}'", file.getOriginalFilename());
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return userImportService.importUsers(reader);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Handles the POST request for /admin/users/purge. It deletes every member who has not logged in within the
+     * retention window.
+     * @return how many members were stamped and deleted
+     */
+    @PostMapping("/purge")
+    public UserPurgeService.Result purgeInactiveUsers() {
+        logger.info("purgeInactiveUsers: purge started by an admin");
+        return userPurgeService.purgeInactiveUsers();
+    }
+}
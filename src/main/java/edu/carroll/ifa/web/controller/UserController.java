@@ -97,6 +97,7 @@ public class UserController {
         registerOrUpdateForm.setFirstName(user.getFirstName());
         registerOrUpdateForm.setLastName(user.getLastName());
         registerOrUpdateForm.setAge(user.getAge());
+        registerOrUpdateForm.setVersion(user.getVersion());
         // adds the registration form to the model
         model.addAttribute("registerOrUpdateForm", registerOrUpdateForm);
         logger.info("User '{}' visited update account page", sessionUsername);
@@ -158,10 +159,20 @@ public class UserController {
             return "updateAccount";
         }
 
+        // only save over the version the form was filled in from, so changes made somewhere else since then are not lost
+        if (updatedUser.getVersion() != null) {
+            user.setVersion(updatedUser.getVersion());
+        }
+
         // save the user with new information
-        if (userService.updateUser(user, updatedUser.getFirstName(), updatedUser.getLastName(), updatedUser.getAge())) {
-            logger.info("The user '{}' updated account information", user.getUsername());
+        if (!userService.updateUser(user, updatedUser.getFirstName(), updatedUser.getLastName(), updatedUser.getAge())) {
+            result.addError(new ObjectError("globalError", "Your account could not be updated, it may have been changed somewhere else. Please check your details and try again"));
+            // submitting again saves over the latest version
+            final User current = userService.getUserByUserName(sessionUsername);
+            updatedUser.setVersion(current == null ? null : current.getVersion());
+            return "updateAccount";
         }
+        logger.info("The user '{}' updated account information", user.getUsername());
 
         // get the username in the session
         session.setAttribute("username", user.getUsername());
@@ -217,7 +228,10 @@ public class UserController {
         }
 
         // save the user with new password
-        userService.updatePassword(user, updatedPassword.getNewPassword(), updatedPassword.getCurrentPassword());
+        if (!userService.updatePassword(user, updatedPassword.getNewPassword(), updatedPassword.getCurrentPassword())) {
+            result.addError(new ObjectError("globalError", "Your password could not be updated, please try again"));
+            return "updatePassword";
+        }
         logger.info("The user '{}' updated their password", user.getUsername());
 
         return "redirect:/loginSuccess";
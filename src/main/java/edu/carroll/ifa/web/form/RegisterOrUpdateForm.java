@@ -23,6 +23,8 @@ public class RegisterOrUpdateForm {
     @Min(value = 1L, message = "The value must be positive")
     @Max(value = 126L, message = "The value must be less than 127")
     private Integer age;
+    // version of the user the update form was filled in from, not used when registering
+    private Integer version;
 
     /**
      * Returns the username from the registerForm.
@@ -103,4 +105,20 @@ public class RegisterOrUpdateForm {
     public void setAge(Integer age) {
         this.age = age;
     }
+
+    /**
+     * Returns the version of the user the update form was filled in from.
+     * @return version
+     */
+    public Integer getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the user the update form was filled in from
+     * @param version - Version of the user from the database
+     */
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,89 @@
+package edu.carroll.ifa.web.form;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class TrainingLogForm {
+
+    @NotBlank
+    @Size(max = 64, message = "Drill name must be at most 64 characters long")
+    private String drill;
+
+    @Min(value = 0, message = "Juggles can't be negative")
+    @Max(value = 100000, message = "Juggles must be at most 100000")
+    private Integer juggles;
+
+    @Min(value = 0, message = "Minutes can't be negative")
+    @Max(value = 600, message = "Minutes must be at most 600")
+    private Integer minutes;
+
+    @Min(value = 0, message = "Shots can't be negative")
+    @Max(value = 10000, message = "Shots must be at most 10000")
+    private Integer shots;
+
+    /**
+     * Returns the drill from the TrainingLogForm.
+     * @return drill
+     */
+    public String getDrill() {
+        return drill;
+    }
+
+    /**
+     * Sets the drill from the TrainingLogForm
+     * @param drill - drill from the TrainingLogForm
+     */
+    public void setDrill(String drill) {
+        this.drill = drill;
+    }
+
+    /**
+     * Returns the juggles from the TrainingLogForm.
+     * @return juggles
+     */
+    public Integer getJuggles() {
+        return juggles;
+    }
+
+    /**
+     * Sets the juggles from the TrainingLogForm
+     * @param juggles - juggles from the TrainingLogForm
+     */
+    public void setJuggles(Integer juggles) {
+        this.juggles = juggles;
+    }
+
+    /**
+     * Returns the minutes from the TrainingLogForm.
+     * @return minutes
+     */
+    public Integer getMinutes() {
+        return minutes;
+    }
+
+    /**
+     * Sets the minutes from the TrainingLogForm
+     * @param minutes - minutes from the TrainingLogForm
+     */
+    public void setMinutes(Integer minutes) {
+        this.minutes = minutes;
+    }
+
+    /**
+     * Returns the shots from the TrainingLogForm.
+     * @return shots
+     */
+    public Integer getShots() {
+        return shots;
+    }
+
+    /**
+     * Sets the shots from the TrainingLogForm
+     * @param shots - shots from the TrainingLogForm
+     */
+    public void setShots(Integer shots) {
+        this.shots = shots;
+    }
+}
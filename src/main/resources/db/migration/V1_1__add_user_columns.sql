@@ -0,0 +1,8 @@
+-- Left nullable until V2 has normalized the existing usernames, V3 then requires it
+alter table user add column username_normalized varchar(255);
+alter table user add constraint uk_user_username_normalized unique (username_normalized);
+
+alter table user add column last_active_at datetime(6);
+
+-- Existing rows start at version 0 for optimistic locking
+alter table user add column version integer not null default 0;
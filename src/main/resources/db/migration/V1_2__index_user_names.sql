@@ -0,0 +1,4 @@
+-- (name, id) so a name search can seek straight to where the last page ended and read the index in order
+create index idx_user_lname on user (lname, id);
+create index idx_user_fname on user (fname, id);
+create index idx_user_last_active on user (last_active_at);
@@ -0,0 +1,20 @@
+-- The user table as Hibernate created it before migrations owned the schema. Databases that already have it are
+-- baselined at this version (spring.flyway.baseline-on-migrate) so this script only runs on empty databases.
+-- Columns added since then go in later migrations so baselined databases get them too.
+create table user (
+    id       integer      not null,
+    username varchar(255) not null,
+    fname    varchar(255) not null,
+    lname    varchar(255) not null,
+    age      integer      not null,
+    password varchar(255) not null,
+    primary key (id),
+    constraint uk_user_username unique (username)
+) engine = InnoDB;
+
+-- MySQL has no sequences, so Hibernate keeps the next block of user ids in this table, see UserIdGenerator
+create table user_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into user_seq values (1);
@@ -0,0 +1,2 @@
+-- Every user has a normalized username after V2, so lookups can rely on it
+alter table user modify username_normalized varchar(255) not null;
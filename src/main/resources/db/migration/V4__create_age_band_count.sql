@@ -0,0 +1,18 @@
+-- One counter row per drill age band, see AgeBand. Seeded from the current users, after that the application keeps
+-- the counts up to date and the reconcile job corrects any drift.
+create table age_band_count (
+    band         enum ('UNDER_5', 'AGES_5_8', 'AGES_9_11', 'AGES_12_14', 'AGES_15_PLUS') not null,
+    member_count bigint not null,
+    primary key (band)
+) engine = InnoDB;
+
+insert into age_band_count (band, member_count)
+select 'UNDER_5', count(*) from user where age < 5
+union all
+select 'AGES_5_8', count(*) from user where age between 5 and 8
+union all
+select 'AGES_9_11', count(*) from user where age between 9 and 11
+union all
+select 'AGES_12_14', count(*) from user where age between 12 and 14
+union all
+select 'AGES_15_PLUS', count(*) from user where age >= 15;
@@ -0,0 +1,29 @@
+-- Drills shown on the drills page, see DrillCatalog. Seeded with the drills that used to be written into
+-- soccerDrills.html, after that they can be changed here without a redeploy.
+create table drill (
+    id          integer      not null auto_increment,
+    min_age     integer      not null,
+    max_age     integer,
+    name        varchar(64)  not null,
+    description varchar(512) not null,
+    sort_order  integer      not null,
+    primary key (id)
+) engine = InnoDB;
+
+insert into drill (min_age, max_age, name, description, sort_order) values
+    (5, 8, 'Juggles', 'At least 10 minutes', 1),
+    (5, 8, 'Dribbling Drills', 'Complete the infinity drill 3x1 minute each', 2),
+    (5, 8, 'Shooting Drills', 'Take 10 shots on each leg and aim for the side netting of small goal', 3),
+    (5, 8, 'Passing Drills', 'Wall passes with the inside of foot for 10 minutes', 4),
+    (9, 11, 'Juggles', 'At least 20 minutes', 1),
+    (9, 11, 'Dribbling Drills', 'Complete the infinity and slalom drill 3x2 minutes each', 2),
+    (9, 11, 'Shooting Drills', 'Take 10 shots on each leg and aim for the side netting of big goal from the pk spot', 3),
+    (9, 11, 'Passing Drills', 'Wall passes using inside and laces for 5 minutes each', 4),
+    (12, 14, 'Juggles', 'At least 30 minutes or 100 juggles', 1),
+    (12, 14, 'Dribbling Drills', 'Complete the infinity, slalom, and ladder drill 3x2 minutes each', 2),
+    (12, 14, 'Shooting Drills', 'Take 10 shots on each leg and aim for the side netting of big goal from edge of the box', 3),
+    (12, 14, 'Passing Drills', 'Wall passes using inside, laces, and inside bounce for 5 minutes each', 4),
+    (15, null, 'Juggles', 'At least 30 minutes or 500 juggles', 1),
+    (15, null, 'Dribbling Drills', 'Complete the infinity, slalom, ladder, and juggle infinity drill 3x2 minutes each', 2),
+    (15, null, 'Shooting Drills', 'Take 10 shots on each leg and aim for the side netting of big goal from edge of the box starting with ladder dribbling drill', 3),
+    (15, null, 'Passing Drills', 'Wall passes using inside, laces, inside bounce, and lace bounce for 5 minutes each', 4);
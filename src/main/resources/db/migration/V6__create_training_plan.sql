@@ -0,0 +1,9 @@
+-- One weekly plan per user, rebuilt every night by TrainingPlanServiceImpl. There is no foreign key to user so
+-- deleting a user does not have to touch this table, the next run removes the plan.
+create table training_plan (
+    user_id      integer       not null,
+    week_start   date          not null,
+    schedule     varchar(8192) not null,
+    generated_at datetime(6)   not null,
+    primary key (user_id)
+) engine = InnoDB;
@@ -0,0 +1,21 @@
+-- Drills players log as done. Ids come from training_log_seq in blocks of 50 so inserts can be batched, and a
+-- user's logs are deleted with the user.
+create table training_log (
+    id        bigint      not null,
+    user_id   integer     not null,
+    drill     varchar(64) not null,
+    juggles   integer,
+    minutes   integer,
+    shots     integer,
+    logged_at datetime(6) not null,
+    primary key (id),
+    constraint fk_training_log_user foreign key (user_id) references user (id) on delete cascade
+) engine = InnoDB;
+
+create index idx_training_log_user on training_log (user_id, logged_at);
+
+create table training_log_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into training_log_seq values (1);
@@ -0,0 +1,16 @@
+-- Each player's most juggles in one logged drill, the leaderboards are built from it at startup. Players who logged
+-- juggles before this table existed are seeded from their logs.
+create table juggle_record (
+    user_id      integer     not null,
+    best_juggles integer     not null,
+    achieved_at  datetime(6) not null,
+    primary key (user_id),
+    constraint fk_juggle_record_user foreign key (user_id) references user (id) on delete cascade
+) engine = InnoDB;
+
+insert into juggle_record (user_id, best_juggles, achieved_at)
+select l.user_id, l.juggles, min(l.logged_at)
+from training_log l
+join (select user_id, max(juggles) as best from training_log where juggles > 0 group by user_id) b
+    on b.user_id = l.user_id and b.best = l.juggles
+group by l.user_id, l.juggles;
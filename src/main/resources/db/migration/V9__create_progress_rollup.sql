@@ -0,0 +1,29 @@
+-- Per day, week and month totals of each player's logged training, added to as drills are logged. Weeks start on
+-- Monday, dayofweek counts from Sunday = 1. Drills logged before this table existed are rolled up from their logs.
+create table progress_rollup (
+    user_id      integer                      not null,
+    period       enum ('DAY','WEEK','MONTH') not null,
+    period_start date                         not null,
+    drills       integer                      not null,
+    minutes      bigint                       not null,
+    juggles      bigint                       not null,
+    shots        bigint                       not null,
+    version      bigint                       not null,
+    primary key (user_id, period, period_start),
+    constraint fk_progress_rollup_user foreign key (user_id) references user (id) on delete cascade
+) engine = InnoDB;
+
+insert into progress_rollup (user_id, period, period_start, drills, minutes, juggles, shots, version)
+select user_id, period, period_start, count(*), coalesce(sum(minutes), 0), coalesce(sum(juggles), 0),
+       coalesce(sum(shots), 0), 0
+from (select user_id, 'DAY' as period, cast(logged_at as date) as period_start, minutes, juggles, shots
+      from training_log
+      union all
+      select user_id, 'WEEK', timestampadd(day, -mod(dayofweek(logged_at) + 5, 7), cast(logged_at as date)),
+             minutes, juggles, shots
+      from training_log
+      union all
+      select user_id, 'MONTH', timestampadd(day, 1 - dayofmonth(logged_at), cast(logged_at as date)),
+             minutes, juggles, shots
+      from training_log) l
+group by user_id, period, period_start;
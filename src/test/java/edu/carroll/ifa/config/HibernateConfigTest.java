@@ -0,0 +1,59 @@
+package edu.carroll.ifa.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import edu.carroll.ifa.jpa.stats.SlowQueryLog;
+import edu.carroll.ifa.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the Hibernate settings, to make sure the statements Hibernate runs go through the slow query log. The
+ * threshold is 0 so every statement is logged, and the application gets its own in-memory database.
+ */
+@SpringBootTest(properties = {
+        "ifa.slow-query.threshold-ms=0",
+        "spring.datasource.url=jdbc:h2:mem:hibernate_config;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER"
+})
+public class HibernateConfigTest {
+    private final Logger slowQueryLogger = (Logger) LoggerFactory.getLogger(SlowQueryLog.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    public void captureSlowQueries() {
+        appender.start();
+        slowQueryLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void releaseSlowQueries() {
+        slowQueryLogger.detachAppender(appender);
+        appender.stop();
+    }
+
+    /**
+     * This unit test checks to see that a user query run through a service is logged with its SQL and the service
+     * method that ran it.
+     */
+    @Test
+    public void userQueryLoggedTest() {
+        assertNull("userQueryLoggedTest: the user should not exist", userService.getUserByUserName("slow_query_user"));
+        final boolean logged = appender.list.stream()
+                .map(ILoggingEvent::getFormattedMessage)
+                .anyMatch(message -> message.startsWith("slow statement:")
+                        && message.contains("UserServiceImpl.getUserByUserName")
+                        && message.contains("from user"));
+        assertTrue("userQueryLoggedTest: the user query should be logged with the service method, got " +
+                appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList(), logged);
+    }
+}
@@ -0,0 +1,39 @@
+package edu.carroll.ifa.config;
+
+import edu.carroll.ifa.service.PasswordHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the metrics, to make sure the connection pool and hashing pool are published.
+ */
+@SpringBootTest
+public class MetricsConfigTest {
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Test
+    public void connectionPoolMetricsTest() {
+        assertNotNull("connectionPoolMetricsTest: should publish active connections", registry.find("hikaricp.connections.active").gauge());
+        assertNotNull("connectionPoolMetricsTest: should publish idle connections", registry.find("hikaricp.connections.idle").gauge());
+        assertNotNull("connectionPoolMetricsTest: should publish pending threads", registry.find("hikaricp.connections.pending").gauge());
+        assertNotNull("connectionPoolMetricsTest: should publish connection acquire time", registry.find("hikaricp.connections.acquire").timer());
+        assertNotNull("connectionPoolMetricsTest: should publish connection usage time", registry.find("hikaricp.connections.usage").timer());
+    }
+
+    @Test
+    public void hashingMetricsTest() {
+        final long before = (long) registry.get("ifa.hashing.work").functionTimer().count();
+        passwordHasher.encode("password");
+        assertEquals("hashingMetricsTest: should count the hash", before + 1, (long) registry.get("ifa.hashing.work").functionTimer().count());
+        assertNotNull("hashingMetricsTest: should publish the queue size", registry.find("ifa.hashing.queue").gauge());
+        assertNotNull("hashingMetricsTest: should publish the cache size", registry.find("ifa.user.cache.size").gauge());
+    }
+}
@@ -0,0 +1,153 @@
+package edu.carroll.ifa.config;
+
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.service.ReadYourWrites;
+import edu.carroll.ifa.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.util.AssertionErrors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Unit test for the read replica routing, with two in-memory H2 databases standing in for the primary and replica. The replica
+ * gets the same tables as the primary but no rows unless a test copies them, so a read that finds nothing went to the replica.
+ * These tests are not transactional, since a surrounding read-write transaction would send everything to the primary.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER",
+        "ifa.datasource.replica.url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER"
+})
+@AutoConfigureMockMvc
+public class ReplicaDataSourceConfigTest {
+    private static final String username = "replica_test_user";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void copySchemaToReplica() {
+        final JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        if (replica.queryForObject("select count(*) from information_schema.tables where table_name = 'USER'", Integer.class) == 0) {
+            final List<String> ddl = new JdbcTemplate(primaryDataSource).queryForList("script nodata", String.class);
+            ddl.stream().filter(statement -> !statement.startsWith("CREATE USER")).forEach(replica::execute);
+        }
+        startRequest();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        userService.deleteUser(username);
+        new JdbcTemplate(replicaDataSource).update("delete from user where username = ?", username);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void readOnlyTransactionUsesReplicaTest() {
+        assertEquals("readOnlyTransactionUsesReplicaTest: read-only transaction should use the replica", "ROUTING_REPLICA", databaseName(true));
+        assertEquals("readOnlyTransactionUsesReplicaTest: read-write transaction should use the primary", "ROUTING_PRIMARY", databaseName(false));
+        assertEquals("readOnlyTransactionUsesReplicaTest: forcing the primary should win over read-only", "ROUTING_PRIMARY",
+                DataSourceRouting.onPrimary(() -> databaseName(true)));
+    }
+
+    @Test
+    public void lookupsReadReplicaUntilUserWritesTest() {
+        assertTrue("lookupsReadReplicaUntilUserWritesTest: registering should write to the primary",
+                userService.registerUser(new User(username, "password", "Replica", "Tester", 12)));
+        // a new request in a new session, which has not written anything
+        startRequest();
+        assertNull("lookupsReadReplicaUntilUserWritesTest: lookup should go to the replica, which never got the user",
+                userService.getUserByUserName(username));
+        startRequest();
+        readYourWrites.recordWrite();
+        final User user = userService.getUserByUserName(username);
+        assertNotNull("lookupsReadReplicaUntilUserWritesTest: lookup right after a write should go to the primary", user);
+        assertTrue("lookupsReadReplicaUntilUserWritesTest: update should write to the primary",
+                userService.updateUser(user, "Updated", user.getLastName(), user.getAge()));
+        startRequest();
+        readYourWrites.recordWrite();
+        assertEquals("lookupsReadReplicaUntilUserWritesTest: user should see their own update", "Updated",
+                userService.getUserByUserName(username).getFirstName());
+    }
+
+    /**
+     * This unit test checks to see that a request which reads the user from the replica and then updates them writes the
+     * update to the primary, rather than reusing the replica connection from its read.
+     */
+    @Test
+    public void requestReadsReplicaThenWritesPrimaryTest() throws Exception {
+        assertTrue("requestReadsReplicaThenWritesPrimaryTest: registering should write to the primary",
+                userService.registerUser(new User(username, "password", "Replica", "Tester", 12)));
+        copyUserToReplica();
+        final MockHttpServletResponse response = mockMvc.perform(post("/updateAccount").sessionAttr("username", username)
+                        .param("username", username).param("password", "password")
+                        .param("firstName", "Updated").param("lastName", "Tester").param("age", "12"))
+                .andReturn().getResponse();
+        assertEquals("requestReadsReplicaThenWritesPrimaryTest: update should succeed", "/loginSuccess", response.getRedirectedUrl());
+        assertEquals("requestReadsReplicaThenWritesPrimaryTest: update should be written to the primary", "Updated",
+                firstName(primaryDataSource));
+        assertEquals("requestReadsReplicaThenWritesPrimaryTest: replica should not be written to", "Replica",
+                firstName(replicaDataSource));
+    }
+
+    private void copyUserToReplica() {
+        final Map<String, Object> row = new JdbcTemplate(primaryDataSource)
+                .queryForMap("select * from user where username = ?", username);
+        final String columns = String.join(", ", row.keySet());
+        final String values = String.join(", ", Collections.nCopies(row.size(), "?"));
+        new JdbcTemplate(replicaDataSource).update("insert into user (" + columns + ") values (" + values + ")",
+                row.values().toArray());
+    }
+
+    private static String firstName(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("select fname from user where username = ?", String.class, username);
+    }
+
+    private String databaseName(boolean readOnly) {
+        final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> new JdbcTemplate(dataSource).queryForObject("select database()", String.class));
+    }
+
+    private static void startRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+}
@@ -0,0 +1,83 @@
+package edu.carroll.ifa.jpa.migration;
+
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for upgrading a database that was created by Hibernate before the migrations owned the schema. The database
+ * is seeded with the user table as it was then, and the application starts on it with Flyway enabled and Hibernate
+ * validating the schema, so the context only loads if the migrations bring it up to date. H2 runs in MySQL mode with
+ * the MySQL dialect so the enum columns the migrations create are validated as they would be in production.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.locations=classpath:db/migration,classpath:edu/carroll/ifa/jpa/migration",
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect"
+})
+public class BaselineUpgradeTest {
+    private static final String url = "jdbc:h2:mem:baseline_upgrade;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @DynamicPropertySource
+    public static void seedBaselineSchema(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "user", "password");
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+            statement.execute("create table user (id integer not null, username varchar(255) not null, " +
+                    "fname varchar(255) not null, lname varchar(255) not null, age integer not null, " +
+                    "password varchar(255) not null, primary key (id), unique (username))");
+            statement.execute("create table user_seq (next_val bigint)");
+            statement.execute("insert into user_seq values (101)");
+            statement.execute("insert into user values (1, 'Bob_Johnson', 'Bob', 'Johnson', 25, 'hash')");
+            statement.execute("insert into user values (2, 'ryan_daniels', 'Ryan', 'Daniels', 30, 'hash')");
+        }
+        registry.add("spring.datasource.url", () -> url);
+    }
+
+    /**
+     * This unit test checks to see that the existing database is baselined and every later migration is applied to it.
+     */
+    @Test
+    public void baselinesAndMigratesTest() {
+        final List<String> versions = jdbcTemplate.queryForList(
+                "select \"version\" from \"flyway_schema_history\" where \"version\" is not null order by \"installed_rank\"", String.class);
+        assertEquals("baselinesAndMigratesTest: the existing schema should be baselined at V1", "1", versions.get(0));
+        assertTrue("baselinesAndMigratesTest: the new user columns should be added", versions.contains("1.1"));
+        assertTrue("baselinesAndMigratesTest: the usernames should be normalized", versions.contains("2"));
+        assertTrue("baselinesAndMigratesTest: the normalized username should be required", versions.contains("3"));
+    }
+
+    /**
+     * This unit test checks to see that the users from before the upgrade can be loaded by their normalized username.
+     */
+    @Test
+    public void existingUsersUpgradedTest() {
+        final List<User> users = userRepo.findByNormalizedUsername("bob_johnson");
+        assertEquals("existingUsersUpgradedTest: existing user should be found by normalized username", 1, users.size());
+        final User user = users.get(0);
+        assertEquals("existingUsersUpgradedTest: existing user should keep their name", "Bob", user.getFirstName());
+        assertEquals("existingUsersUpgradedTest: existing users should start at version 0", 0, user.getVersion());
+    }
+}
@@ -0,0 +1,96 @@
+package edu.carroll.ifa.jpa.migration;
+
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the V2__NormalizeUsernames migration, run against its own in-memory database with the user table as it
+ * was before the migration.
+ */
+public class V2__NormalizeUsernamesTest {
+    private Connection connection;
+
+    @BeforeEach
+    public void createTable() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:normalize_usernames;NON_KEYWORDS=USER");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table user (id integer primary key, username varchar(255) not null unique, " +
+                    "username_normalized varchar(255) unique)");
+        }
+    }
+
+    @AfterEach
+    public void dropTable() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * This unit test checks to see that usernames without a normalized form get one and existing ones are kept.
+     */
+    @Test
+    public void normalizesMissingUsernamesTest() throws SQLException {
+        insert(1, "Bob_Johnson", null);
+        insert(2, "ryan_daniels", "ryan_daniels");
+        new V2__NormalizeUsernames().migrate(context());
+        assertEquals("normalizesMissingUsernamesTest: missing normalized username should be filled in", "bob_johnson", normalized(1));
+        assertEquals("normalizesMissingUsernamesTest: existing normalized username should be kept", "ryan_daniels", normalized(2));
+    }
+
+    /**
+     * This unit test checks to see that two usernames that normalize to the same value fail the migration.
+     */
+    @Test
+    public void collidingUsernamesFailTest() throws SQLException {
+        insert(1, "bob_johnson", "bob_johnson");
+        insert(2, "BOB_JOHNSON", null);
+        try {
+            new V2__NormalizeUsernames().migrate(context());
+            fail("collidingUsernamesFailTest: the migration should fail on a collision");
+        } catch (SQLException e) {
+            assertTrue("collidingUsernamesFailTest: the message should name the usernames", e.getMessage().contains("BOB_JOHNSON"));
+        }
+        assertNull("collidingUsernamesFailTest: the colliding user should be left alone", normalized(2));
+    }
+
+    private void insert(int id, String username, String normalized) throws SQLException {
+        try (var statement = connection.prepareStatement("insert into user values (?, ?, ?)")) {
+            statement.setInt(1, id);
+            statement.setString(2, username);
+            statement.setString(3, normalized);
+            statement.executeUpdate();
+        }
+    }
+
+    private String normalized(int id) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select username_normalized from user where id = " + id)) {
+            rows.next();
+            return rows.getString(1);
+        }
+    }
+
+    private Context context() {
+        return new Context() {
+            @Override
+            public Configuration getConfiguration() {
+                return null;
+            }
+
+            @Override
+            public Connection getConnection() {
+                return connection;
+            }
+        };
+    }
+}
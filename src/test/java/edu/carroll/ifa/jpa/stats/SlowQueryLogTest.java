@@ -0,0 +1,84 @@
+package edu.carroll.ifa.jpa.stats;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the SlowQueryLog class, run against its own in-memory database with a threshold of 0 so every statement
+ * is reported.
+ */
+public class SlowQueryLogTest {
+    private final List<String> reported = new ArrayList<>();
+    private Connection connection;
+
+    @BeforeEach
+    public void createTables() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:slow_query_log");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table drill_a (id integer primary key)");
+            statement.execute("create table drill_b (id integer primary key)");
+        }
+    }
+
+    @AfterEach
+    public void dropTables() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * This unit test checks to see that each batch is reported with its own SQL, even when another statement was
+     * prepared after it.
+     */
+    @Test
+    public void batchesReportOwnSqlTest() throws SQLException {
+        final Connection wrapped = recordingLog(0).wrap(connection);
+        try (PreparedStatement first = wrapped.prepareStatement("insert into drill_a values (?)");
+             PreparedStatement second = wrapped.prepareStatement("insert into drill_b values (?)")) {
+            first.setInt(1, 1);
+            first.addBatch();
+            second.setInt(1, 1);
+            second.addBatch();
+            first.executeBatch();
+            second.executeBatch();
+        }
+        assertEquals("batchesReportOwnSqlTest: each batch should be reported with its SQL",
+                List.of("batch: insert into drill_a values (?)", "batch: insert into drill_b values (?)"), reported);
+
+        reported.clear();
+        try (Statement statement = wrapped.createStatement()) {
+            statement.executeQuery("select count(*) from drill_a").close();
+        }
+        assertEquals("batchesReportOwnSqlTest: a plain statement should be reported with the SQL it ran",
+                List.of("statement: select count(*) from drill_a"), reported);
+    }
+
+    /**
+     * This unit test checks to see that a negative threshold leaves connections unwrapped.
+     */
+    @Test
+    public void disabledLeavesConnectionTest() {
+        final SlowQueryLog log = recordingLog(-1);
+        assertFalse("disabledLeavesConnectionTest: log should be off", log.isEnabled());
+        assertTrue("disabledLeavesConnectionTest: connection should not be wrapped", log.wrap(connection) == connection);
+    }
+
+    private SlowQueryLog recordingLog(long thresholdMs) {
+        return new SlowQueryLog(thresholdMs) {
+            @Override
+            void report(String kind, String sql, long elapsedNanos) {
+                reported.add(kind + ": " + sql);
+            }
+        };
+    }
+}
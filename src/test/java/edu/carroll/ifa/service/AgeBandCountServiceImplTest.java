@@ -0,0 +1,73 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.AgeBand;
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.AgeBandCountRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Map;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the AgeBandCountServiceImpl class to make sure the counters follow the users as they change.
+ */
+@SpringBootTest
+@Transactional
+public class AgeBandCountServiceImplTest {
+    @Autowired
+    private AgeBandCountService ageBandCountService;
+
+    @Autowired
+    private AgeBandCountRepository ageBandCountRepo;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    public void createCounters() {
+        // the test database is built from the entities, so the counter rows the migration seeds are created here
+        ageBandCountService.reconcile();
+    }
+
+    @Test
+    public void ageBandOfTest() {
+        assertEquals("ageBandOfTest: 4 should be under 5", AgeBand.UNDER_5, AgeBand.of(4));
+        assertEquals("ageBandOfTest: 5 should be in 5-8", AgeBand.AGES_5_8, AgeBand.of(5));
+        assertEquals("ageBandOfTest: 11 should be in 9-11", AgeBand.AGES_9_11, AgeBand.of(11));
+        assertEquals("ageBandOfTest: 12 should be in 12-14", AgeBand.AGES_12_14, AgeBand.of(12));
+        assertEquals("ageBandOfTest: 15 should be in 15+", AgeBand.AGES_15_PLUS, AgeBand.of(15));
+    }
+
+    @Test
+    public void countersFollowUsersTest() {
+        userService.registerUser(new User("bob_johnson", "123456789", "Bob", "Johnson", 7));
+        userService.registerUser(new User("ryan_daniels", "password", "Ryan", "Daniels", 8));
+        userService.registerUser(new User("jane_johnson", "password", "Jane", "Johnson", 16));
+        Map<AgeBand, Long> counts = ageBandCountService.getCounts();
+        assertEquals("countersFollowUsersTest: two users should be in 5-8", 2L, counts.get(AgeBand.AGES_5_8));
+        assertEquals("countersFollowUsersTest: one user should be in 15+", 1L, counts.get(AgeBand.AGES_15_PLUS));
+
+        final User bob = userService.getUserByUserName("bob_johnson");
+        assertTrue("countersFollowUsersTest: age update should succeed", userService.updateUser(bob, "Bob", "Johnson", 10));
+        assertTrue("countersFollowUsersTest: delete should succeed", userService.deleteUser("jane_johnson"));
+        counts = ageBandCountService.getCounts();
+        assertEquals("countersFollowUsersTest: one user should be left in 5-8", 1L, counts.get(AgeBand.AGES_5_8));
+        assertEquals("countersFollowUsersTest: the updated user should be in 9-11", 1L, counts.get(AgeBand.AGES_9_11));
+        assertEquals("countersFollowUsersTest: no user should be left in 15+", 0L, counts.get(AgeBand.AGES_15_PLUS));
+        assertEquals("countersFollowUsersTest: the counters should match a recount", counts, ageBandCountService.reconcile());
+    }
+
+    @Test
+    public void reconcileCorrectsDriftTest() {
+        userService.registerUser(new User("bob_johnson", "123456789", "Bob", "Johnson", 13));
+        ageBandCountRepo.addToCount(AgeBand.AGES_12_14, 5);
+        assertEquals("reconcileCorrectsDriftTest: the drifted counter should be off", 6L, ageBandCountService.getCounts().get(AgeBand.AGES_12_14));
+        ageBandCountService.reconcile();
+        assertEquals("reconcileCorrectsDriftTest: reconcile should correct the counter", 1L, ageBandCountService.getCounts().get(AgeBand.AGES_12_14));
+    }
+}
@@ -0,0 +1,63 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.Drill;
+import edu.carroll.ifa.jpa.repo.DrillRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the DrillCatalog class to make sure every age is indexed to the drills meant for it.
+ */
+@SpringBootTest
+@Transactional
+public class DrillCatalogTest {
+    @Autowired
+    private DrillCatalog drillCatalog;
+
+    @Autowired
+    private DrillRepository drillRepo;
+
+    @BeforeEach
+    public void addDrills() {
+        drillRepo.saveAll(List.of(
+                new Drill(5, 8, "Juggles", "At least 10 minutes", 1),
+                new Drill(5, 8, "Passing Drills", "Wall passes with the inside of foot for 10 minutes", 2),
+                new Drill(9, 11, "Juggles", "At least 20 minutes", 1),
+                new Drill(15, null, "Juggles", "At least 30 minutes or 500 juggles", 1)));
+        drillCatalog.reload();
+    }
+
+    // the drills added above are rolled back by now, so the shared catalog must not keep serving them
+    @AfterTransaction
+    public void reloadWithoutDrills() {
+        assertEquals("reloadWithoutDrills: the drills should be rolled back", 0, drillCatalog.reload());
+    }
+
+    @Test
+    public void drillsForAgeTest() {
+        final DrillSet set = drillCatalog.drillsFor(7);
+        assertEquals("drillsForAgeTest: age 7 should get the 5-8 drills", "Ages 5-8", set.label());
+        assertEquals("drillsForAgeTest: age 7 should get both 5-8 drills", 2, set.drills().size());
+        assertEquals("drillsForAgeTest: drills should be in sort order", "Juggles", set.drills().get(0).name());
+        assertTrue("drillsForAgeTest: ages in the same band should share one set", set == drillCatalog.drillsFor(5));
+        assertEquals("drillsForAgeTest: the oldest band should have no upper age", "Age 15+",
+                drillCatalog.drillsFor(UserService.TOO_OLD_AGE - 1).label());
+    }
+
+    @Test
+    public void agesWithoutDrillsTest() {
+        assertTrue("agesWithoutDrillsTest: age 4 should have no drills", drillCatalog.drillsFor(4).isEmpty());
+        assertTrue("agesWithoutDrillsTest: ages 12-14 have no drills here", drillCatalog.drillsFor(13).isEmpty());
+        assertTrue("agesWithoutDrillsTest: an invalid age should have no drills", drillCatalog.drillsFor(UserService.INVALID_AGE).isEmpty());
+        assertTrue("agesWithoutDrillsTest: a too old age should have no drills", drillCatalog.drillsFor(UserService.TOO_OLD_AGE).isEmpty());
+        assertEquals("agesWithoutDrillsTest: there should be three drill sets", 3, drillCatalog.getDrillSets().size());
+    }
+}
@@ -0,0 +1,99 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.AgeBand;
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.JuggleRecordRepository;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the JuggleLeaderboard class to make sure records are saved and ranked per age band. The boards only
+ * change once a transaction commits, so this test commits its data and cleans it up afterwards instead of rolling
+ * back.
+ */
+@SpringBootTest
+public class JuggleLeaderboardTest {
+    @Autowired
+    private JuggleLeaderboard juggleLeaderboard;
+
+    @Autowired
+    private JuggleRecordRepository recordRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private User younger;
+    private User older;
+    private User other;
+
+    @BeforeEach
+    public void addUsers() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // saved straight to the repository so the age band counters are left alone
+        younger = userRepo.save(new User("juggler_young", "password", "Young", "Juggler", 7));
+        older = userRepo.save(new User("juggler_old", "password", "Old", "Juggler", 10));
+        other = userRepo.save(new User("juggler_other", "password", "Other", "Juggler", 7));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        recordRepo.deleteAll();
+        userRepo.deleteAll();
+        juggleLeaderboard.rebuild();
+    }
+
+    @Test
+    public void recordJugglesTest() {
+        record(new TrainingLogEntry(younger.getId(), "Juggles", 40, null, null, Instant.now()),
+                new TrainingLogEntry(younger.getId(), "Juggles", 60, null, null, Instant.now()),
+                new TrainingLogEntry(older.getId(), "Juggles", 200, null, null, Instant.now()),
+                new TrainingLogEntry(other.getId(), "Juggles", 50, null, null, Instant.now()));
+        assertEquals("recordJugglesTest: the best of the batch should be the record", 60,
+                recordRepo.findById(younger.getId()).orElseThrow().getBestJuggles());
+        assertEquals("recordJugglesTest: players should be ranked within their own band", List.of("juggler_young", "juggler_other"),
+                juggleLeaderboard.top(AgeBand.AGES_5_8, 10).stream().map(LeaderboardEntry::username).toList());
+        assertEquals("recordJugglesTest: older players should be on their own board", 1, juggleLeaderboard.standingOf(older.getId()).players());
+
+        record(new TrainingLogEntry(younger.getId(), "Juggles", 30, null, null, Instant.now()),
+                new TrainingLogEntry(other.getId(), "Juggles", 70, null, null, Instant.now()));
+        assertEquals("recordJugglesTest: a lower count should not lower the record", 60,
+                juggleLeaderboard.standingOf(younger.getId()).entry().juggles());
+        assertEquals("recordJugglesTest: a new record should move the player up", 1, juggleLeaderboard.standingOf(other.getId()).rank());
+        assertEquals("recordJugglesTest: the passed player should move down", 2, juggleLeaderboard.standingOf(younger.getId()).rank());
+
+        juggleLeaderboard.rebuild();
+        assertEquals("recordJugglesTest: rebuilding should give the same ranks", 2, juggleLeaderboard.standingOf(younger.getId()).rank());
+    }
+
+    @Test
+    public void moveAndRemoveTest() {
+        record(new TrainingLogEntry(younger.getId(), "Juggles", 40, null, null, Instant.now()),
+                new TrainingLogEntry(other.getId(), "Juggles", 50, null, null, Instant.now()));
+        juggleLeaderboard.recordAgeChange(younger.getId(), 10);
+        assertEquals("moveAndRemoveTest: a player should move to the board for their new age", AgeBand.AGES_9_11,
+                juggleLeaderboard.standingOf(younger.getId()).band());
+        assertEquals("moveAndRemoveTest: the old board should lose the player", 1, juggleLeaderboard.top(AgeBand.AGES_5_8, 10).size());
+        juggleLeaderboard.recordRemoved(List.of(other.getId()));
+        assertNull("moveAndRemoveTest: a removed player should have no standing", juggleLeaderboard.standingOf(other.getId()));
+        assertTrue("moveAndRemoveTest: the board should be empty", juggleLeaderboard.top(AgeBand.AGES_5_8, 10).isEmpty());
+    }
+
+    private void record(TrainingLogEntry... entries) {
+        transactionTemplate.executeWithoutResult(status -> juggleLeaderboard.recordJuggles(List.of(entries)));
+    }
+}
@@ -0,0 +1,113 @@
+package edu.carroll.ifa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the PasswordHasher class to make sure hashing work is bounded by the pool and queue sizes.
+ */
+public class PasswordHasherTest {
+    private static final String password = "123456789";
+
+    /**
+     * This unit test checks to see that a hashed password can be matched against its raw password on the pool.
+     */
+    @Test
+    public void encodeAndMatchTest() {
+        PasswordHasher hasher = new PasswordHasher(1, 4, 5000, 4, 0, 4, 4);
+        try {
+            String hashed = hasher.encode(password);
+            assertTrue("encodeAndMatchTest: the raw password should match its hash", hasher.matches(password, hashed));
+            assertFalse("encodeAndMatchTest: a different password should not match the hash", hasher.matches(password + "not", hashed));
+            assertTrue("encodeAndMatchTest: the async check should match as well", hasher.matchesAsync(password, hashed).join());
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    /**
+     * This unit test checks to see that a batch bigger than the queue is hashed on the pool a window at a time, and
+     * counted in its metrics.
+     */
+    @Test
+    public void encodeAllUsesPoolTest() {
+        PasswordHasher hasher = new PasswordHasher(1, 1, 5000, 4, 0, 4, 4);
+        try {
+            List<String> passwords = List.of("password1", "password2", "password3", "password4", "password5");
+            List<String> hashes = hasher.encodeAll(passwords);
+            assertEquals("encodeAllUsesPoolTest: every password should be hashed", passwords.size(), hashes.size());
+            for (int i = 0; i < passwords.size(); i++) {
+                assertTrue("encodeAllUsesPoolTest: hashes should be in order", hasher.matches(passwords.get(i), hashes.get(i)));
+            }
+            assertEquals("encodeAllUsesPoolTest: nothing should be rejected", 0L, hasher.getRejectedCount());
+            assertTrue("encodeAllUsesPoolTest: the hashes should run on the pool", hasher.getStartedCount() >= passwords.size());
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    /**
+     * This unit test checks to see that work beyond one busy thread and a full queue is rejected right away.
+     */
+    @Test
+    public void saturatedPoolRejectsTest() {
+        PasswordHasher hasher = new PasswordHasher(1, 1, 5000, 10, 0, 10, 10);
+        try {
+            String hashed = hasher.encode(password);
+            CompletableFuture<Boolean> running = hasher.matchesAsync(password, hashed);
+            // wait for the only thread to pick up the first request so the next one has to queue
+            while (hasher.getQueueSize() > 0) {
+                Thread.onSpinWait();
+            }
+            CompletableFuture<Boolean> queued = hasher.matchesAsync(password, hashed);
+            CompletableFuture<Boolean> rejected = hasher.matchesAsync(password, hashed);
+
+            assertTrue("saturatedPoolRejectsTest: the third request should fail right away", rejected.isCompletedExceptionally());
+            try {
+                rejected.join();
+                fail("saturatedPoolRejectsTest: the third request should not complete normally");
+            } catch (CompletionException e) {
+                assertTrue("saturatedPoolRejectsTest: the failure should be reported as a capacity failure", PasswordHasher.isCapacityFailure(e));
+                assertTrue("saturatedPoolRejectsTest: the failure should be a rejection", e.getCause() instanceof RejectedExecutionException);
+            }
+            assertTrue("saturatedPoolRejectsTest: the running request should still finish", running.join());
+            assertTrue("saturatedPoolRejectsTest: the queued request should still finish", queued.join());
+            assertEquals("saturatedPoolRejectsTest: exactly one request should be counted as rejected", 1L, hasher.getRejectedCount());
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    /**
+     * This unit test checks to see that hashes below the configured strength are flagged for rehashing, and hashes at or
+     * above it are not.
+     */
+    @Test
+    public void needsRehashTest() {
+        PasswordHasher hasher = new PasswordHasher(1, 4, 5000, 5, 0, 5, 5);
+        try {
+            assertEquals("needsRehashTest: the configured strength should be used", 5, hasher.getStrength());
+            assertTrue("needsRehashTest: a weaker hash should be rehashed", hasher.needsRehash(new BCryptPasswordEncoder(4).encode(password)));
+            assertFalse("needsRehashTest: a hash at the same strength should be kept", hasher.needsRehash(hasher.encode(password)));
+            assertFalse("needsRehashTest: a stronger hash should be kept", hasher.needsRehash(new BCryptPasswordEncoder(6).encode(password)));
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    /**
+     * This unit test checks to see that calibration stays within the allowed strength range.
+     */
+    @Test
+    public void calibrateStrengthBoundsTest() {
+        assertEquals("calibrateStrengthBoundsTest: a zero budget should pick the minimum strength", 4, PasswordHasher.calibrateStrength(0, 4, 6));
+        assertEquals("calibrateStrengthBoundsTest: a huge budget should stop at the maximum strength", 6, PasswordHasher.calibrateStrength(Long.MAX_VALUE / 4, 4, 6));
+    }
+}
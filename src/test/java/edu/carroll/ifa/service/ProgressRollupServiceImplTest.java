@@ -0,0 +1,74 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.RollupPeriod;
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the ProgressRollupServiceImpl class to make sure logged drills are totalled per period and charted
+ * with a point for every period.
+ */
+@SpringBootTest
+@Transactional
+public class ProgressRollupServiceImplTest {
+    @Autowired
+    private ProgressRollupService progressRollupService;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    private User user;
+
+    @BeforeEach
+    public void addUser() {
+        user = userRepo.save(new User("progress_player", "password", "Progress", "Player", 10));
+    }
+
+    @Test
+    public void dailyChartTest() {
+        final Instant now = Instant.now();
+        progressRollupService.record(List.of(
+                new TrainingLogEntry(user.getId(), "Juggles", 50, 10, null, now),
+                new TrainingLogEntry(user.getId(), "Shooting", null, 5, 3, now),
+                new TrainingLogEntry(user.getId(), "Juggles", 20, 15, null, now.minus(Duration.ofDays(7)))));
+        // a later batch adds to the rows already there
+        progressRollupService.record(List.of(new TrainingLogEntry(user.getId(), "Juggles", 30, null, null, now)));
+
+        final ProgressChart chart = progressRollupService.getChart(user.getId(), RollupPeriod.DAY, 10);
+        assertEquals("dailyChartTest: there should be a point for every day", 10, chart.points().size());
+        final ProgressChart.Point today = chart.points().get(9);
+        assertEquals("dailyChartTest: today's drills should be counted", 3, today.drills());
+        assertEquals("dailyChartTest: today's minutes should be summed", 15L, today.minutes());
+        assertEquals("dailyChartTest: today's juggles should be summed across batches", 80L, today.juggles());
+        assertEquals("dailyChartTest: today's shots should be summed", 3L, today.shots());
+        assertEquals("dailyChartTest: a week ago should have its own point", 20L, chart.points().get(2).juggles());
+        assertEquals("dailyChartTest: days without drills should be zero", 0, chart.points().get(5).drills());
+    }
+
+    @Test
+    public void weeklyChartTest() {
+        final Instant now = Instant.now();
+        progressRollupService.record(List.of(
+                new TrainingLogEntry(user.getId(), "Juggles", 50, 10, null, now),
+                new TrainingLogEntry(user.getId(), "Juggles", 20, 15, null, now.minus(Duration.ofDays(7)))));
+        final ProgressChart chart = progressRollupService.getChart(user.getId(), RollupPeriod.WEEK, 3);
+        assertEquals("weeklyChartTest: weeks should start on Monday", DayOfWeek.MONDAY,
+                chart.points().get(0).periodStart().getDayOfWeek());
+        assertEquals("weeklyChartTest: this week should hold today's drill", 50L, chart.points().get(2).juggles());
+        assertEquals("weeklyChartTest: last week should hold last week's drill", 20L, chart.points().get(1).juggles());
+        assertTrue("weeklyChartTest: this month should hold today's drill",
+                progressRollupService.getChart(user.getId(), RollupPeriod.MONTH, 1).points().get(0).juggles() >= 50L);
+    }
+}
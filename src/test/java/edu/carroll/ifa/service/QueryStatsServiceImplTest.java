@@ -0,0 +1,47 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the QueryStatsServiceImpl class to make sure repository queries show up in the statistics.
+ */
+@SpringBootTest
+@Transactional
+public class QueryStatsServiceImplTest {
+    @Autowired
+    private QueryStatsService queryStatsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+
+    @Test
+    public void queryCountedTest() {
+        userService.registerUser(new User("bob_johnson", "123456789", "Bob", "Johnson", 17));
+        queryStatsService.reset();
+        userDirectoryService.listUsers(null, 10);
+        userDirectoryService.listUsers(null, 10);
+        final QueryStats.Query listQuery = queryStatsService.getStats().queries().stream()
+                .filter(query -> query.query().contains("UserSummary"))
+                .findFirst()
+                .orElse(null);
+        assertNotNull("queryCountedTest: the member listing query should be in the statistics", listQuery);
+        assertEquals("queryCountedTest: the member listing query should have run twice", 2L, listQuery.executions());
+        assertEquals("queryCountedTest: each run should have returned the one user", 2L, listQuery.rows());
+    }
+
+    @Test
+    public void resetTest() {
+        userDirectoryService.listUsers(null, 10);
+        queryStatsService.reset();
+        assertTrue("resetTest: no queries should be left after a reset", queryStatsService.getStats().queries().isEmpty());
+    }
+}
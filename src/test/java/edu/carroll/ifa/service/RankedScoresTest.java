@@ -0,0 +1,54 @@
+package edu.carroll.ifa.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the RankedScores class to make sure players are ordered and ranked as their scores change.
+ */
+public class RankedScoresTest {
+    private static final Instant EARLY = Instant.parse("2026-10-01T10:00:00Z");
+    private static final Instant LATE = Instant.parse("2026-10-02T10:00:00Z");
+
+    /**
+     * This unit test checks that the top players come best first, with the earlier record first on a tie.
+     */
+    @Test
+    public void topAndRankTest() {
+        final RankedScores scores = new RankedScores();
+        scores.put(new LeaderboardEntry(1, "one", 50, EARLY));
+        scores.put(new LeaderboardEntry(2, "two", 80, LATE));
+        scores.put(new LeaderboardEntry(3, "three", 50, LATE));
+        scores.put(new LeaderboardEntry(4, "four", 10, EARLY));
+        assertEquals("topAndRankTest: top players should be best first, earlier record first on a tie",
+                List.of(2, 1, 3), scores.top(3).stream().map(LeaderboardEntry::userId).toList());
+        assertEquals("topAndRankTest: best player should rank first", 1, scores.rankOf(2));
+        assertEquals("topAndRankTest: tied players should share a rank", 2, scores.rankOf(3));
+        assertEquals("topAndRankTest: rank should count every better player", 4, scores.rankOf(4));
+        assertEquals("topAndRankTest: a player not on the board has no rank", 0, scores.rankOf(5));
+    }
+
+    /**
+     * This unit test checks that replacing and removing players keeps the order and the ranks in step.
+     */
+    @Test
+    public void replaceAndRemoveTest() {
+        final RankedScores scores = new RankedScores();
+        scores.put(new LeaderboardEntry(1, "one", 50, EARLY));
+        scores.put(new LeaderboardEntry(2, "two", 80, EARLY));
+        scores.put(new LeaderboardEntry(1, "one", 90, LATE));
+        assertEquals("replaceAndRemoveTest: a replaced player should appear once", 2, scores.size());
+        assertEquals("replaceAndRemoveTest: a raised score should move the player up", 1, scores.rankOf(1));
+        assertEquals("replaceAndRemoveTest: the passed player should move down", 2, scores.rankOf(2));
+        scores.remove(1);
+        assertEquals("replaceAndRemoveTest: a removed player should leave the board", List.of(2),
+                scores.top(10).stream().map(LeaderboardEntry::userId).toList());
+        assertEquals("replaceAndRemoveTest: ranks should close up after a removal", 1, scores.rankOf(2));
+        scores.put(new LeaderboardEntry(3, "three", RankedScores.MAX_SCORE + 5, EARLY));
+        assertEquals("replaceAndRemoveTest: scores past the maximum should still rank first", 1, scores.rankOf(3));
+    }
+}
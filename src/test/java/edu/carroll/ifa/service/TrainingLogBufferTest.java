@@ -0,0 +1,101 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.JuggleRecordRepository;
+import edu.carroll.ifa.jpa.repo.ProgressRollupRepository;
+import edu.carroll.ifa.jpa.repo.TrainingLogRepository;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the TrainingLogBuffer class to make sure every accepted log is written. The logs are written on the
+ * buffer's own thread, so this test commits its data and cleans it up afterwards instead of rolling back.
+ */
+@SpringBootTest
+public class TrainingLogBufferTest {
+    @Autowired
+    private TrainingLogRepository logRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private JuggleRecordRepository juggleRecordRepo;
+
+    @Autowired
+    private ProgressRollupRepository rollupRepo;
+
+    @Autowired
+    private JuggleLeaderboard juggleLeaderboard;
+
+    @Autowired
+    private ProgressRollupService progressRollups;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+
+    @BeforeEach
+    public void addUser() {
+        // saved straight to the repository so the age band counters are left alone
+        user = userRepo.save(new User("log_player", "password", "Log", "Player", 10));
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        logRepo.deleteAll();
+        rollupRepo.deleteAll();
+        juggleRecordRepo.deleteAll();
+        juggleLeaderboard.rebuild();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    public void writeOnStopTest() {
+        // a batch never fills up or times out here, so everything is written in batches or by stop()
+        final TrainingLogBuffer buffer = new TrainingLogBuffer(logRepo, userRepo, juggleLeaderboard, progressRollups, transactionManager, 100, 10, 60000, 0);
+        assertFalse("writeOnStopTest: should turn logs away before starting", buffer.submit(entry(user.getId())));
+        buffer.start();
+        for (int i = 0; i < 25; i++) {
+            assertTrue("writeOnStopTest: should accept logs while there is room", buffer.submit(entry(user.getId())));
+        }
+        buffer.stop();
+        assertEquals("writeOnStopTest: every accepted log should be written by stop", 25,
+                logRepo.findByUserIdOrderByLoggedAtAscIdAsc(user.getId()).size());
+        assertEquals("writeOnStopTest: nothing should be left waiting", 0, buffer.getQueueSize());
+        assertFalse("writeOnStopTest: should turn logs away once stopped", buffer.submit(entry(user.getId())));
+        assertEquals("writeOnStopTest: turned away logs should be counted", 2L, buffer.getRejectedCount());
+    }
+
+    @Test
+    public void dropDeletedUserTest() {
+        final TrainingLogBuffer buffer = new TrainingLogBuffer(logRepo, userRepo, juggleLeaderboard, progressRollups, transactionManager, 100, 10, 60000, 0);
+        buffer.start();
+        try {
+            buffer.submit(entry(user.getId()));
+            buffer.submit(entry(-1));
+            buffer.submit(entry(user.getId()));
+            buffer.flush();
+            assertEquals("dropDeletedUserTest: logs of existing users should be written", 2,
+                    logRepo.findByUserIdOrderByLoggedAtAscIdAsc(user.getId()).size());
+            assertEquals("dropDeletedUserTest: the log of a missing user should be dropped", 1L, buffer.getDroppedCount());
+            assertEquals("dropDeletedUserTest: nothing should be left waiting", 0, buffer.getQueueSize());
+        } finally {
+            buffer.stop();
+        }
+    }
+
+    private static TrainingLogEntry entry(int userId) {
+        return new TrainingLogEntry(userId, "Juggles", 50, 10, null, Instant.now());
+    }
+}
@@ -0,0 +1,93 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.Drill;
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.DrillRepository;
+import edu.carroll.ifa.jpa.repo.TrainingPlanRepository;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the TrainingPlanServiceImpl class to make sure every user gets a plan for their age. The plans are
+ * built on other threads, so this test commits its data and cleans it up afterwards instead of rolling back.
+ */
+@SpringBootTest(properties = "ifa.plans.chunk-size=2")
+public class TrainingPlanServiceImplTest {
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 12);
+
+    @Autowired
+    private TrainingPlanService trainingPlanService;
+
+    @Autowired
+    private TrainingPlanRepository planRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private DrillRepository drillRepo;
+
+    @Autowired
+    private DrillCatalog drillCatalog;
+
+    @AfterEach
+    public void cleanUp() {
+        planRepo.deleteAll();
+        userRepo.deleteAll();
+        drillRepo.deleteAll();
+        drillCatalog.reload();
+    }
+
+    @Test
+    public void buildPlanTest() {
+        final DrillSet drillSet = new DrillSet("5-8", "Ages 5-8", List.of(
+                new DrillSet.Item("Juggles", "At least 10 minutes"),
+                new DrillSet.Item("Passing Drills", "Wall passes"),
+                new DrillSet.Item("Dribbling", "Cone weaves")));
+        final WeeklyPlan plan = TrainingPlanServiceImpl.buildPlan(4, 7, drillSet, MONDAY);
+        assertEquals("buildPlanTest: plan should cover every day of the week", 7, plan.days().size());
+        assertEquals("buildPlanTest: ages 5-8 should train three days",
+                List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY),
+                plan.days().stream().filter(day -> !day.isRest()).map(WeeklyPlan.Day::day).toList());
+        assertEquals("buildPlanTest: drills should start at the user's offset", "Passing Drills", plan.days().get(0).drills().get(0).name());
+        assertEquals("buildPlanTest: drills should rotate across days", "Juggles", plan.days().get(2).drills().get(0).name());
+        assertTrue("buildPlanTest: no drills should make every day a rest day",
+                TrainingPlanServiceImpl.buildPlan(4, 13, DrillSet.EMPTY, MONDAY).days().stream().allMatch(WeeklyPlan.Day::isRest));
+    }
+
+    @Test
+    public void generatePlansTest() {
+        drillRepo.saveAll(List.of(
+                new Drill(5, 8, "Juggles", "At least 10 minutes", 1),
+                new Drill(9, 11, "Juggles", "At least 20 minutes", 1)));
+        drillCatalog.reload();
+        // saved straight to the repository so the age band counters are left alone
+        final List<User> users = userRepo.saveAll(List.of(
+                new User("plan_player_1", "password", "One", "Player", 6),
+                new User("plan_player_2", "password", "Two", "Player", 10),
+                new User("plan_player_3", "password", "Three", "Player", 10),
+                new User("plan_player_4", "password", "Four", "Player", 30)));
+
+        assertEquals("generatePlansTest: every user should get a plan", 4, trainingPlanService.generatePlans());
+        assertEquals("generatePlansTest: every plan should be saved", 4L, planRepo.count());
+        final User user = users.get(1);
+        final WeeklyPlan plan = trainingPlanService.getPlan(user);
+        assertEquals("generatePlansTest: saved plan should match the user's age", "At least 20 minutes",
+                plan.days().get(0).drills().get(0).description());
+        assertEquals("generatePlansTest: ages 9-11 should train four days", 4L,
+                plan.days().stream().filter(day -> !day.isRest()).count());
+
+        userRepo.delete(users.get(3));
+        assertEquals("generatePlansTest: a second run should replace the plans", 3, trainingPlanService.generatePlans());
+        assertEquals("generatePlansTest: the deleted user's plan should be removed", 3L, planRepo.count());
+    }
+}
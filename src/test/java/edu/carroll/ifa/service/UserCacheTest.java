@@ -0,0 +1,67 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the UserCache class to make sure users are bounded, expire and are counted correctly.
+ */
+public class UserCacheTest {
+    private final User fakeUser1 = new User("bob_johnson", "hashed1", "Bob", "Johnson", 17);
+    private final User fakeUser2 = new User("ryan_daniels", "hashed2", "Ryan", "Daniels", 14);
+
+    /**
+     * This unit test checks to see that a cached user is returned as a copy and counted as a hit.
+     */
+    @Test
+    public void getCachedUserTest() {
+        UserCache cache = new UserCache(10, 300);
+        assertNull("getCachedUserTest: an empty cache should not return a user", cache.get(fakeUser1.getNormalizedUsername()));
+        cache.put(fakeUser1);
+        User cached = cache.get(fakeUser1.getNormalizedUsername());
+        assertEquals("getCachedUserTest: the cached user should equal the original", fakeUser1, cached);
+        assertFalse("getCachedUserTest: the cached user should be a copy", fakeUser1 == cached);
+        cached.setAge(99);
+        assertEquals("getCachedUserTest: changing a returned copy should not change the cache", fakeUser1.getAge(), cache.get(fakeUser1.getNormalizedUsername()).getAge());
+        assertEquals("getCachedUserTest: there should be two hits", 2L, cache.getStats().hits());
+        assertEquals("getCachedUserTest: there should be one miss", 1L, cache.getStats().misses());
+    }
+
+    /**
+     * This unit test checks to see that the least recently used user is evicted once the cache is full.
+     */
+    @Test
+    public void evictLeastRecentlyUsedTest() {
+        UserCache cache = new UserCache(1, 300);
+        cache.put(fakeUser1);
+        cache.put(fakeUser2);
+        assertNull("evictLeastRecentlyUsedTest: the first user should have been evicted", cache.get(fakeUser1.getNormalizedUsername()));
+        assertNotNull("evictLeastRecentlyUsedTest: the second user should still be cached", cache.get(fakeUser2.getNormalizedUsername()));
+        assertEquals("evictLeastRecentlyUsedTest: there should be one eviction", 1L, cache.getStats().evictions());
+        assertEquals("evictLeastRecentlyUsedTest: the cache should hold one user", 1, cache.getStats().size());
+    }
+
+    /**
+     * This unit test checks to see that a user is not returned once its time to live has passed.
+     */
+    @Test
+    public void expiredUserTest() {
+        UserCache cache = new UserCache(10, 0);
+        cache.put(fakeUser1);
+        assertNull("expiredUserTest: an expired user should not be returned", cache.get(fakeUser1.getNormalizedUsername()));
+        assertEquals("expiredUserTest: the expired user should count as an eviction", 1L, cache.getStats().evictions());
+    }
+
+    /**
+     * This unit test checks to see that an invalidated user is no longer returned.
+     */
+    @Test
+    public void invalidateUserTest() {
+        UserCache cache = new UserCache(10, 300);
+        cache.put(fakeUser1);
+        cache.invalidate(fakeUser1.getNormalizedUsername());
+        assertNull("invalidateUserTest: an invalidated user should not be returned", cache.get(fakeUser1.getNormalizedUsername()));
+    }
+}
@@ -0,0 +1,76 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.UserSummary;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the UserDirectoryServiceImpl class to make sure keyset pages cover every user exactly once.
+ */
+@SpringBootTest
+@Transactional
+public class UserDirectoryServiceImplTest {
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    public void addUsers() {
+        userService.registerUser(new User("bob_johnson", "123456789", "Bob", "Johnson", 17));
+        userService.registerUser(new User("ryan_daniels", "password", "Ryan", "Daniels", 14));
+        userService.registerUser(new User("jane_johnson", "password", "Jane", "Johnson", 12));
+        userService.registerUser(new User("jack_jones", "password", "Jack", "Jones", 9));
+        userService.registerUser(new User("percent_user", "password", "Pat", "Jo%", 10));
+    }
+
+    @Test
+    public void listUsersPagesTest() {
+        final List<String> seen = new ArrayList<>();
+        UserSummaryPage page = userDirectoryService.listUsers(null, 2);
+        seen.addAll(page.users().stream().map(UserSummary::username).toList());
+        while (page.nextAfterId() != null) {
+            page = userDirectoryService.listUsers(page.nextAfterId(), 2);
+            seen.addAll(page.users().stream().map(UserSummary::username).toList());
+        }
+        assertEquals("listUsersPagesTest: should see every user exactly once", 5, seen.size());
+        assertEquals("listUsersPagesTest: should see every user exactly once", 5, (int) seen.stream().distinct().count());
+    }
+
+    @Test
+    public void searchUsersByLastNameTest() {
+        UserSummaryPage page = userDirectoryService.searchUsers(UserDirectoryService.NameField.LAST_NAME, "Joh", null, null, 1);
+        assertEquals("searchUsersByLastNameTest: first page should have one user", 1, page.users().size());
+        assertEquals("searchUsersByLastNameTest: should continue after Johnson", "Johnson", page.nextAfterName());
+        final String first = page.users().get(0).username();
+        page = userDirectoryService.searchUsers(UserDirectoryService.NameField.LAST_NAME, "Joh", page.nextAfterName(), page.nextAfterId(), 1);
+        assertEquals("searchUsersByLastNameTest: second page should have the other Johnson", 1, page.users().size());
+        assertNotEquals("searchUsersByLastNameTest: second page should not repeat the first", first, page.users().get(0).username());
+        assertNull("searchUsersByLastNameTest: second page should be the last", page.nextAfterId());
+    }
+
+    @Test
+    public void searchUsersByFirstNameTest() {
+        final UserSummaryPage page = userDirectoryService.searchUsers(UserDirectoryService.NameField.FIRST_NAME, "Ja", null, null, 10);
+        assertEquals("searchUsersByFirstNameTest: should find Jack and Jane", 2, page.users().size());
+        assertEquals("searchUsersByFirstNameTest: should be ordered by first name", "Jack", page.users().get(0).firstName());
+        assertNull("searchUsersByFirstNameTest: should be the only page", page.nextAfterId());
+    }
+
+    @Test
+    public void searchUsersWildcardIsLiteralTest() {
+        final UserSummaryPage page = userDirectoryService.searchUsers(UserDirectoryService.NameField.LAST_NAME, "Jo%", null, null, 10);
+        assertEquals("searchUsersWildcardIsLiteralTest: % should only match itself", 1, page.users().size());
+        assertEquals("searchUsersWildcardIsLiteralTest: should find the user named Jo%", "percent_user", page.users().get(0).username());
+    }
+}
@@ -0,0 +1,61 @@
+package edu.carroll.ifa.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.carroll.ifa.jpa.model.User;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the UserExportServiceImpl class to make sure the roster export has every user and no passwords.
+ */
+@SpringBootTest
+@Transactional
+public class UserExportServiceImplTest {
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void exportUsersCsvTest() throws IOException {
+        assertTrue("exportUsersCsvTest: Add user to database failed", userService.registerUser(new User("bob_johnson", "123456789", "Bob", "Johnson, Jr", 17)));
+        assertTrue("exportUsersCsvTest: Add user to database failed", userService.registerUser(new User("ryan_daniels", "password", "Ryan", "Daniels", 14)));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals("exportUsersCsvTest: should export both users", 2L, userExportService.exportUsers(UserExportService.Format.CSV, out));
+        final String csv = out.toString(StandardCharsets.UTF_8);
+        final String[] lines = csv.split("\n");
+        assertEquals("exportUsersCsvTest: should have a header and a line per user", 3, lines.length);
+        assertEquals("exportUsersCsvTest: header should match the import columns", "id,username,firstName,lastName,age", lines[0]);
+        assertTrue("exportUsersCsvTest: last name with a comma should be quoted", lines[1].endsWith("bob_johnson,Bob,\"Johnson, Jr\",17"));
+        assertFalse("exportUsersCsvTest: password hashes should never be exported", csv.contains("$2a$"));
+    }
+
+    @Test
+    public void exportUsersJsonTest() throws IOException {
+        assertTrue("exportUsersJsonTest: Add user to database failed", userService.registerUser(new User("bob_johnson", "123456789", "Bob", "Johnson", 17)));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals("exportUsersJsonTest: should export the user", 1L, userExportService.exportUsers(UserExportService.Format.JSON, out));
+        final JsonNode users = new ObjectMapper().readTree(out.toByteArray());
+        assertEquals("exportUsersJsonTest: should be an array with one user", 1, users.size());
+        assertEquals("exportUsersJsonTest: username should be exported", "bob_johnson", users.get(0).get("username").asText());
+        assertEquals("exportUsersJsonTest: age should be exported", 17, users.get(0).get("age").asInt());
+        assertFalse("exportUsersJsonTest: password hashes should never be exported", out.toString(StandardCharsets.UTF_8).contains("$2a$"));
+    }
+
+    @Test
+    public void exportUsersEmptyTest() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals("exportUsersEmptyTest: should export no users", 0L, userExportService.exportUsers(UserExportService.Format.JSON, out));
+        assertEquals("exportUsersEmptyTest: should be an empty array", "[]", out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,93 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the UserImportServiceImpl class to make sure bulk imports save the valid rows and report the rest.
+ */
+@SpringBootTest
+@Transactional
+public class UserImportServiceImplTest {
+    private static final String header = "username,password,firstName,lastName,age\n";
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void importUsersSuccessTest() throws IOException {
+        final UserImportReport report = userImportService.importUsers(new StringReader(header +
+                "bob_johnson,123456789,Bob,Johnson,17\n" +
+                "ryan_daniels,password,Ryan,\"Daniels, Jr\",14\n"));
+        assertEquals("importUsersSuccessTest: should read both rows", 2, report.rowsRead());
+        assertEquals("importUsersSuccessTest: should import both rows", 2, report.imported());
+        assertEquals("importUsersSuccessTest: should not fail any rows", 0, report.failed());
+        assertTrue("importUsersSuccessTest: imported user should be able to log in", userService.validateUser("bob_johnson", "123456789"));
+        final User ryan = userService.getUserByUserName("ryan_daniels");
+        assertEquals("importUsersSuccessTest: quoted last name should keep its comma", "Daniels, Jr", ryan.getLastName());
+        assertEquals("importUsersSuccessTest: age should be imported", 14, ryan.getAge());
+    }
+
+    @Test
+    public void importUsersReportsInvalidRowsTest() throws IOException {
+        final UserImportReport report = userImportService.importUsers(new StringReader(header +
+                "short,123456789,Bob,Johnson,17\n" +
+                "bob_johnson,123456789,Bob,Johnson,old\n" +
+                "bob_johnson,123456789,Bob,Johnson,124\n" +
+                "\n" +
+                "ryan_daniels,password,Ryan,Daniels,14\n"));
+        assertEquals("importUsersReportsInvalidRowsTest: blank lines should not count as rows", 4, report.rowsRead());
+        assertEquals("importUsersReportsInvalidRowsTest: only the valid row should be imported", 1, report.imported());
+        assertEquals("importUsersReportsInvalidRowsTest: three rows should fail", 3, report.failed());
+        assertEquals("importUsersReportsInvalidRowsTest: short username should be reported on line 2", 2L, report.failures().get(0).line());
+        assertEquals("importUsersReportsInvalidRowsTest: bad age should be reported on line 3", 3L, report.failures().get(1).line());
+        assertEquals("importUsersReportsInvalidRowsTest: too old should be reported on line 4", 4L, report.failures().get(2).line());
+        assertNull("importUsersReportsInvalidRowsTest: invalid user should not be saved", userService.getUserByUserName("bob_johnson"));
+    }
+
+    @Test
+    public void importUsersSkipsTakenUsernamesTest() throws IOException {
+        assertTrue("importUsersSkipsTakenUsernamesTest: Add user to database failed",
+                userService.registerUser(new User("bob_johnson", "123456789", "Bob", "Johnson", 17)));
+        final UserImportReport report = userImportService.importUsers(new StringReader(header +
+                "BOB_JOHNSON,password,Robert,Johnson,40\n" +
+                "ryan_daniels,password,Ryan,Daniels,14\n" +
+                "Ryan_Daniels,password,Ryan,Daniels,15\n"));
+        assertEquals("importUsersSkipsTakenUsernamesTest: only the first ryan_daniels should be imported", 1, report.imported());
+        assertEquals("importUsersSkipsTakenUsernamesTest: taken and repeated usernames should fail", 2, report.failed());
+        assertEquals("importUsersSkipsTakenUsernamesTest: existing user should be left alone", "Bob", userService.getUserByUserName("bob_johnson").getFirstName());
+        assertEquals("importUsersSkipsTakenUsernamesTest: first row for a username should win", 14, userService.getUserByUserName("ryan_daniels").getAge());
+    }
+
+    @Test
+    public void importUsersUnclosedQuoteTest() throws IOException {
+        final UserImportReport report = userImportService.importUsers(new StringReader(header +
+                "bob_johnson,Secret-Passw0rd,\"Bob,Johnson,17\n"));
+        assertEquals("importUsersUnclosedQuoteTest: the row should fail", 1, report.failed());
+        final String reason = report.failures().get(0).reason();
+        assertTrue("importUsersUnclosedQuoteTest: should say where the quote is", reason.contains("character 29"));
+        assertFalse("importUsersUnclosedQuoteTest: should not repeat the password", reason.contains("Secret-Passw0rd"));
+        assertFalse("importUsersUnclosedQuoteTest: report should not hold the password", report.toString().contains("Secret-Passw0rd"));
+    }
+
+    @Test
+    public void importUsersMissingColumnTest() {
+        try {
+            userImportService.importUsers(new StringReader("username,password,firstName,lastName\nbob_johnson,123456789,Bob,Johnson\n"));
+            fail("importUsersMissingColumnTest: a header without an age column should be rejected");
+        } catch (IllegalArgumentException | IOException e) {
+            assertTrue("importUsersMissingColumnTest: should name the missing column", e.getMessage().contains("age"));
+        }
+    }
+}
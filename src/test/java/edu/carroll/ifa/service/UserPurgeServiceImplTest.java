@@ -0,0 +1,58 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit test for the UserPurgeServiceImpl class to make sure only users inactive past the retention window are removed.
+ */
+@SpringBootTest(properties = "ifa.purge.batch-size=2")
+@Transactional
+public class UserPurgeServiceImplTest {
+    @Autowired
+    private UserPurgeService userPurgeService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Test
+    public void purgeInactiveUsersTest() {
+        final Instant longAgo = Instant.now().minus(Duration.ofDays(400));
+        for (String username : new String[]{"inactive_1", "inactive_2", "inactive_3"}) {
+            assertTrue("purgeInactiveUsersTest: Add user to database failed", userService.registerUser(new User(username, "password", "Old", "Player", 12)));
+            userRepo.updateLastActiveAt(userService.getUserByUserName(username).getId(), longAgo);
+        }
+        assertTrue("purgeInactiveUsersTest: Add user to database failed", userService.registerUser(new User("active_player", "password", "New", "Player", 12)));
+        // saved without going through registerUser, like users from before activity was recorded
+        userRepo.save(new User("unknown_player", "password", "Some", "Player", 12));
+
+        final UserPurgeService.Result result = userPurgeService.purgeInactiveUsers();
+        assertEquals("purgeInactiveUsersTest: should delete every inactive user across batches", 3, result.deleted());
+        assertEquals("purgeInactiveUsersTest: should stamp the user without activity", 1, result.stamped());
+        assertNull("purgeInactiveUsersTest: inactive user should be deleted", userService.getUserByUserName("inactive_2"));
+        assertNotNull("purgeInactiveUsersTest: active user should be kept", userService.getUserByUserName("active_player"));
+        final User unknown = userService.getUserByUserName("unknown_player");
+        assertNotNull("purgeInactiveUsersTest: user without activity should be kept", unknown);
+        assertNotNull("purgeInactiveUsersTest: user without activity should be stamped", unknown.getLastActiveAt());
+    }
+
+    @Test
+    public void purgeNothingInactiveTest() {
+        assertTrue("purgeNothingInactiveTest: Add user to database failed", userService.registerUser(new User("active_player", "password", "New", "Player", 12)));
+        final UserPurgeService.Result result = userPurgeService.purgeInactiveUsers();
+        assertEquals("purgeNothingInactiveTest: should not delete anyone", 0, result.deleted());
+        assertNotNull("purgeNothingInactiveTest: active user should be kept", userService.getUserByUserName("active_player"));
+    }
+}
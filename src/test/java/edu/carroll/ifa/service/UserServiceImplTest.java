@@ -1,10 +1,18 @@
 package edu.carroll.ifa.service;
 
 import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.UserRepository;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import static org.springframework.test.util.AssertionErrors.*;
 
@@ -33,6 +41,18 @@ public class UserServiceImplTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private RequestUserLookups requestLookups;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     /**
      * This unit test checks to see if a user can successfully be validated in the database provided its raw password and
      * username.
@@ -163,6 +183,20 @@ public class UserServiceImplTest {
         assertTrue("validateUserForeignUserDifferentOrderTest: should be able to validate the arabic user: ", userService.validateUser(mandarinName, password2));
     }
 
+    /**
+     * This unit test checks to see that foreign users can be validated regardless of case or how their accents are encoded
+     */
+    @Test
+    public void validateUserForeignUserDifferentCaseTest() {
+        User icelandicUser = new User(icelandicName, password1, fname1, lname1, age1);
+        assertTrue("validateUserForeignUserDifferentCaseTest: Icelandic user should be added to database", userService.registerUser(icelandicUser));
+        assertTrue("validateUserForeignUserDifferentCaseTest: should validate the upper cased icelandic user", userService.validateUser(icelandicName.toUpperCase(), password1));
+        // the same name with the accent written as a separate combining character
+        String decomposedName = java.text.Normalizer.normalize(icelandicName, java.text.Normalizer.Form.NFD);
+        assertTrue("validateUserForeignUserDifferentCaseTest: should validate the decomposed icelandic user", userService.validateUser(decomposedName, password1));
+        assertFalse("validateUserForeignUserDifferentCaseTest: should not register the upper cased icelandic user again", userService.registerUser(new User(icelandicName.toUpperCase(), password1, fname1, lname1, age1)));
+    }
+
     /**
      * This will make sure that empty username and empty password cannot be validated
      */
@@ -171,6 +205,40 @@ public class UserServiceImplTest {
         assertFalse("validateUserEmptyString: Should fail to validate user with empty strings", userService.validateUser("",""));
     }
 
+    /**
+     * This unit test checks to see that the async login check agrees with the regular one for a valid user.
+     */
+    @Test
+    public void validateUserAsyncSuccessTest() {
+        assertFalse("validateUserAsyncSuccessTest: should fail to validate a user that is not in the database", userService.validateUserAsync(fakeUser1.getUsername(), password1).join());
+        assertTrue("validateUserAsyncSuccessTest: Add user to database failed", userService.registerUser(fakeUser1));
+        assertTrue("validateUserAsyncSuccessTest: should succeed using the same user/pass info", userService.validateUserAsync(fakeUser1.getUsername(), password1).join());
+    }
+
+    /**
+     * This unit test checks to see that the async login check rejects a wrong or null password.
+     */
+    @Test
+    public void validateUserAsyncInvalidPasswordTest() {
+        assertTrue("validateUserAsyncInvalidPasswordTest: Add user to database failed", userService.registerUser(fakeUser1));
+        assertFalse("validateUserAsyncInvalidPasswordTest: should fail using a valid user, and an invalid password", userService.validateUserAsync(fakeUser1.getUsername(), password1 + "not").join());
+        assertFalse("validateUserAsyncInvalidPasswordTest: should fail using a valid user, and a null password", userService.validateUserAsync(fakeUser1.getUsername(), null).join());
+    }
+
+    /**
+     * This unit test checks to see that a password stored with an outdated work factor is rehashed after a successful login.
+     */
+    @Test
+    public void validateUserRehashesWeakPasswordTest() {
+        String weakHash = new BCryptPasswordEncoder(4).encode(password1);
+        userRepo.save(new User(username1, weakHash, fname1, lname1, age1));
+        assertTrue("validateUserRehashesWeakPasswordTest: should validate a user with a weak hash", userService.validateUser(username1, password1));
+        String storedHash = userService.getUserByUserName(username1).getHashedPassword();
+        assertFalse("validateUserRehashesWeakPasswordTest: the weak hash should have been replaced", weakHash.equals(storedHash));
+        assertTrue("validateUserRehashesWeakPasswordTest: the new hash should still match the password", userService.passwordMatches(password1, storedHash));
+        assertTrue("validateUserRehashesWeakPasswordTest: should still validate after the rehash", userService.validateUser(username1, password1));
+    }
+
     /**
      * This unit test checks to see that a new user can be saved into the database if they do not already exist in the database.
      */
@@ -1042,4 +1110,143 @@ public class UserServiceImplTest {
         assertFalse("passwordMatchesValidHashedNullRawTest: the hashedPassword should not match the raw password provided", userService.passwordMatches(password1, null));
         assertTrue("passwordMatchesValidHashedNullRawTest: failed to validate the user", userService.validateUser(fakeUser1.getUsername(), password1));
     }
+
+    /**
+     * This unit test checks to see that registering a username checks it on the database again even when it was just
+     * looked up in the same request, and that the new user is then returned without another query.
+     */
+    @Test
+    public void registerUserSingleLookupPerRequestTest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            assertNull("registerUserSingleLookupPerRequestTest: the user should not exist yet", userService.getUserByUserName(fakeUser1.getUsername()));
+            assertTrue("registerUserSingleLookupPerRequestTest: should succeed using a new user", userService.registerUser(fakeUser1));
+            assertEquals("registerUserSingleLookupPerRequestTest: registering should check the username on the primary again", 2, requestLookups.getQueryCount());
+            assertTrue("registerUserSingleLookupPerRequestTest: the registered user should be returned without a query", fakeUser1 == userService.getUserByUserName(fakeUser1.getUsername()));
+            assertEquals("registerUserSingleLookupPerRequestTest: getting the new user should not query again", 2, requestLookups.getQueryCount());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    /**
+     * This unit test checks to see that updating a password checks the user still exists on the database even when
+     * it was just loaded in the same request, since that load may have come from a replica.
+     */
+    @Test
+    public void updatePasswordSingleLookupPerRequestTest() {
+        assertTrue("updatePasswordSingleLookupPerRequestTest: failed to add fakeUser1", userService.registerUser(fakeUser1));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            User user = userService.getUserByUserName(fakeUser1.getUsername());
+            assertTrue("updatePasswordSingleLookupPerRequestTest: should succeed to change the user password", userService.updatePassword(user, "Password1234", password1));
+            assertEquals("updatePasswordSingleLookupPerRequestTest: the user should be checked on the primary again", 2, requestLookups.getQueryCount());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    /**
+     * This unit test checks to see that registering a username that is taken fails even when this request remembers
+     * the username as free, since that lookup may have come from a replica that is behind.
+     */
+    @Test
+    public void registerUserStaleLookupTest() {
+        assertTrue("registerUserStaleLookupTest: failed to add fakeUser1", userService.registerUser(fakeUser1));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            requestLookups.remember(User.normalizeUsername(username1), null);
+            assertFalse("registerUserStaleLookupTest: should fail to register a username that is taken", userService.registerUser(new User(username1, password1, fname1, lname1, age1)));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    /**
+     * This unit test checks to see that updating a user from an outdated copy fails instead of overwriting the newer
+     * changes.
+     */
+    @Test
+    public void updateUserStaleVersionTest() {
+        assertTrue("updateUserStaleVersionTest: failed to add user to db", userService.registerUser(fakeUser1));
+        User staleCopy = new User(fakeUser1);
+        assertTrue("updateUserStaleVersionTest: should succeed to update user", userService.updateUser(fakeUser1, "Robert", lname1, age1));
+        assertEquals("updateUserStaleVersionTest: version should be bumped by the update", staleCopy.getVersion() + 1, (int) fakeUser1.getVersion());
+        assertTrue("updateUserStaleVersionTest: should succeed to update user again from the same copy", userService.updateUser(fakeUser1, "Robert", lname1, age1 + 1));
+
+        assertFalse("updateUserStaleVersionTest: should fail to update user from an outdated copy", userService.updateUser(staleCopy, fname1, "Smith", age1));
+        User current = userService.getUserByUserName(username1);
+        assertEquals("updateUserStaleVersionTest: newer fname should be kept", "Robert", current.getFirstName());
+        assertEquals("updateUserStaleVersionTest: newer lname should be kept", lname1, current.getLastName());
+        assertEquals("updateUserStaleVersionTest: newer age should be kept", age1 + 1, (int) current.getAge());
+    }
+
+    /**
+     * This unit test checks to see that submitting unchanged information from an outdated copy fails, since the form
+     * it came from did not show the newer changes.
+     */
+    @Test
+    public void updateUserStaleVersionNoChangeTest() {
+        assertTrue("updateUserStaleVersionNoChangeTest: failed to add user to db", userService.registerUser(fakeUser1));
+        final int staleVersion = fakeUser1.getVersion();
+        assertTrue("updateUserStaleVersionNoChangeTest: should succeed to update user", userService.updateUser(fakeUser1, "Robert", lname1, age1));
+        User staleForm = new User(fakeUser1);
+        staleForm.setVersion(staleVersion);
+        assertFalse("updateUserStaleVersionNoChangeTest: should fail to save nothing from an outdated copy", userService.updateUser(staleForm, "Robert", lname1, age1));
+        assertTrue("updateUserStaleVersionNoChangeTest: should succeed to save nothing from the current copy", userService.updateUser(new User(fakeUser1), "Robert", lname1, age1));
+    }
+
+    /**
+     * This unit test checks to see that changing the password from an outdated copy of the user fails.
+     */
+    @Test
+    public void updatePasswordStaleVersionTest() {
+        assertTrue("updatePasswordStaleVersionTest: failed to add user to db", userService.registerUser(fakeUser1));
+        User staleCopy = new User(fakeUser1);
+        assertTrue("updatePasswordStaleVersionTest: should succeed to update user", userService.updateUser(fakeUser1, "Robert", lname1, age1));
+        assertFalse("updatePasswordStaleVersionTest: should fail to update password from an outdated copy", userService.updatePassword(staleCopy, "Password1234", password1));
+        assertTrue("updatePasswordStaleVersionTest: old password should still work", userService.validateUser(username1, password1));
+        assertTrue("updatePasswordStaleVersionTest: should succeed to update password from the current copy", userService.updatePassword(fakeUser1, "Password1234", password1));
+        assertTrue("updatePasswordStaleVersionTest: new password should work", userService.validateUser(username1, "Password1234"));
+    }
+
+    /**
+     * This unit test checks to see that a user another request cached while an update or delete was still running is
+     * gone from the cache once the change commits. It commits its own transactions, so it runs outside the test's.
+     */
+    @Test
+    @org.springframework.transaction.annotation.Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void changesLeaveNoStaleCacheEntryTest() {
+        assertTrue("changesLeaveNoStaleCacheEntryTest: failed to add user to db", userService.registerUser(fakeUser1));
+        try {
+            final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            final User staleCopy = new User(userService.getUserByUserName(username1));
+            final User user = new User(staleCopy);
+            transaction.executeWithoutResult(status -> {
+                assertTrue("changesLeaveNoStaleCacheEntryTest: should succeed to update user", userService.updateUser(user, "Robert", lname1, age1));
+                cacheFromAnotherRequest(staleCopy);
+            });
+            assertNull("changesLeaveNoStaleCacheEntryTest: old copy should not be cached after the update", userCache.get(fakeUser1.getNormalizedUsername()));
+            assertEquals("changesLeaveNoStaleCacheEntryTest: lookup should see the update", "Robert", userService.getUserByUserName(username1).getFirstName());
+
+            transaction.executeWithoutResult(status -> {
+                assertTrue("changesLeaveNoStaleCacheEntryTest: should succeed to delete user", userService.deleteUser(username1));
+                cacheFromAnotherRequest(staleCopy);
+            });
+            assertNull("changesLeaveNoStaleCacheEntryTest: old copy should not be cached after the delete", userCache.get(fakeUser1.getNormalizedUsername()));
+            assertNull("changesLeaveNoStaleCacheEntryTest: deleted user should not be found", userService.getUserByUserName(username1));
+        } finally {
+            userService.deleteUser(username1);
+        }
+    }
+
+    private void cacheFromAnotherRequest(User user) {
+        final Thread other = new Thread(() -> userCache.put(user));
+        other.start();
+        try {
+            other.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package edu.carroll.ifa.service;
+
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Benchmark for the cost of a user lookup under the different transaction setups UserServiceImpl could use. It is
+ * tagged so the regular test run skips it, run it with the benchmark task. Not transactional, so every call commits
+ * like it would in production.
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class UserServiceTransactionBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(UserServiceTransactionBenchmark.class);
+    private static final String username = "benchmark_user";
+    private static final int WARMUP_CALLS = 2000;
+    private static final int MEASURED_CALLS = 10000;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void addUser() {
+        userService.registerUser(new User(username, "password", "Bench", "Mark", 12));
+    }
+
+    @AfterEach
+    public void removeUser() {
+        userService.deleteUser(username);
+    }
+
+    /**
+     * Times a lookup of one user with a read-write transaction around it (what the service got before), a read-only
+     * transaction, and the service call itself with the cache emptied first so it always reaches the database.
+     */
+    @Test
+    public void lookupOverheadBenchmark() {
+        final String normalizedUsername = User.normalizeUsername(username);
+        final TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        final TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        // without a request nothing is remembered between calls, so every service call goes past the request lookups
+        RequestContextHolder.resetRequestAttributes();
+
+        // JIT the shared path once so the first variant measured is not penalized
+        time(() -> readWrite.execute(status -> userRepo.findByNormalizedUsername(normalizedUsername)));
+        final long readWriteNanos = time(() -> readWrite.execute(status -> userRepo.findByNormalizedUsername(normalizedUsername)));
+        final long readOnlyNanos = time(() -> readOnly.execute(status -> userRepo.findByNormalizedUsername(normalizedUsername)));
+        final long serviceNanos = time(() -> {
+            userCache.invalidate(normalizedUsername);
+            final User user = userService.getUserByUserName(username);
+            return user == null ? List.of() : List.of(user);
+        });
+
+        logger.info("lookupOverheadBenchmark: read-write transaction {} us/call", readWriteNanos / 1000.0);
+        logger.info("lookupOverheadBenchmark: read-only transaction {} us/call", readOnlyNanos / 1000.0);
+        logger.info("lookupOverheadBenchmark: getUserByUserName {} us/call", serviceNanos / 1000.0);
+    }
+
+    private static long time(Supplier<List<?>> lookup) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            assertEquals("lookupOverheadBenchmark: the user should be found", 1, lookup.get().size());
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            lookup.get();
+        }
+        return (System.nanoTime() - start) / MEASURED_CALLS;
+    }
+}
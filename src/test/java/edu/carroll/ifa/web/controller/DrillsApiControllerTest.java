@@ -0,0 +1,115 @@
+package edu.carroll.ifa.web.controller;
+
+import edu.carroll.ifa.jpa.model.Drill;
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.DrillRepository;
+import edu.carroll.ifa.service.DrillCatalog;
+import edu.carroll.ifa.service.UserService;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Unit test for the DrillsApiController class to make sure the drills JSON is sent once and revalidated after that.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class DrillsApiControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DrillRepository drillRepo;
+
+    @Autowired
+    private DrillCatalog drillCatalog;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    public void addDrillsAndUsers() {
+        drillRepo.saveAll(List.of(
+                new Drill(5, 8, "Juggles", "At least 10 minutes", 1),
+                new Drill(9, 11, "Juggles", "At least 20 minutes", 1)));
+        drillCatalog.reload();
+        userService.registerUser(new User("bob_johnson", "123456789", "Bob", "Johnson", 7));
+    }
+
+    // the drills added above are rolled back by now, so the shared catalog must not keep serving them
+    @AfterTransaction
+    public void reloadWithoutDrills() {
+        assertEquals("reloadWithoutDrills: the drills should be rolled back", 0, drillCatalog.reload());
+    }
+
+    @Test
+    public void drillsJsonTest() throws Exception {
+        final MockHttpServletResponse response = mockMvc.perform(get("/api/v1/drills").sessionAttr("username", "bob_johnson"))
+                .andReturn().getResponse();
+        assertEquals("drillsJsonTest: should send the drills", 200, response.getStatus());
+        assertEquals("drillsJsonTest: should be JSON", MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        assertEquals("drillsJsonTest: should hold the user's drill set",
+                "{\"key\":\"5-8\",\"label\":\"Ages 5-8\",\"drills\":[{\"name\":\"Juggles\",\"description\":\"At least 10 minutes\"}]}",
+                response.getContentAsString());
+        assertTrue("drillsJsonTest: ETag should be weak so it can be gzipped", response.getHeader(HttpHeaders.ETAG).startsWith("W/"));
+        assertNull("drillsJsonTest: should only be revalidated by ETag", response.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertTrue("drillsJsonTest: app should be allowed to keep it", response.getHeader(HttpHeaders.CACHE_CONTROL).contains("max-age="));
+    }
+
+    @Test
+    public void notModifiedTest() throws Exception {
+        final MockHttpServletResponse first = mockMvc.perform(get("/api/v1/drills").sessionAttr("username", "bob_johnson"))
+                .andReturn().getResponse();
+        final MockHttpServletResponse byEtag = mockMvc.perform(get("/api/v1/drills").sessionAttr("username", "bob_johnson")
+                .header(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG))).andReturn().getResponse();
+        assertEquals("notModifiedTest: a matching ETag should get a 304", 304, byEtag.getStatus());
+        assertEquals("notModifiedTest: 304 should have no body", 0, byEtag.getContentAsByteArray().length);
+
+        drillRepo.save(new Drill(5, 8, "Passing Drills", "Wall passes with the inside of foot for 10 minutes", 2));
+        drillCatalog.reload();
+        final MockHttpServletResponse changed = mockMvc.perform(get("/api/v1/drills").sessionAttr("username", "bob_johnson")
+                .header(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG))).andReturn().getResponse();
+        assertEquals("notModifiedTest: changed drills should be sent again", 200, changed.getStatus());
+        assertTrue("notModifiedTest: should hold the new drill", changed.getContentAsString().contains("Wall passes"));
+    }
+
+    @Test
+    public void ageChangeNotModifiedSinceTest() throws Exception {
+        final MockHttpServletResponse first = mockMvc.perform(get("/api/v1/drills").sessionAttr("username", "bob_johnson"))
+                .andReturn().getResponse();
+        final User user = userService.getUserByUserName("bob_johnson");
+        assertTrue("ageChangeNotModifiedSinceTest: age should be updated",
+                userService.updateUser(user, user.getFirstName(), user.getLastName(), 10));
+        final MockHttpServletResponse byDate = mockMvc.perform(get("/api/v1/drills").sessionAttr("username", "bob_johnson")
+                .header(HttpHeaders.IF_MODIFIED_SINCE, ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(1)
+                        .format(DateTimeFormatter.RFC_1123_DATE_TIME))).andReturn().getResponse();
+        assertEquals("ageChangeNotModifiedSinceTest: a date alone should not get a 304", 200, byDate.getStatus());
+        assertTrue("ageChangeNotModifiedSinceTest: should hold the new age's drills",
+                byDate.getContentAsString().contains("At least 20 minutes"));
+        assertFalse("ageChangeNotModifiedSinceTest: should get a different ETag for the new drills",
+                first.getHeader(HttpHeaders.ETAG).equals(byDate.getHeader(HttpHeaders.ETAG)));
+    }
+
+    @Test
+    public void notLoggedInTest() throws Exception {
+        final MockHttpServletResponse response = mockMvc.perform(get("/api/v1/drills")).andReturn().getResponse();
+        assertEquals("notLoggedInTest: should be unauthorized", 401, response.getStatus());
+    }
+}
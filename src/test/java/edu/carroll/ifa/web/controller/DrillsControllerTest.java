@@ -0,0 +1,117 @@
+package edu.carroll.ifa.web.controller;
+
+import edu.carroll.ifa.jpa.model.Drill;
+import edu.carroll.ifa.jpa.model.User;
+import edu.carroll.ifa.jpa.repo.DrillRepository;
+import edu.carroll.ifa.service.DrillCatalog;
+import edu.carroll.ifa.service.UserService;
+import edu.carroll.ifa.web.DrillPageCache;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Unit test for the DrillsController class to make sure drill pages are cached and revalidated with ETags.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class DrillsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DrillRepository drillRepo;
+
+    @Autowired
+    private DrillCatalog drillCatalog;
+
+    @Autowired
+    private DrillPageCache drillPageCache;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    public void addDrillsAndUsers() {
+        drillRepo.saveAll(List.of(
+                new Drill(5, 8, "Juggles", "At least 10 minutes", 1),
+                new Drill(9, 11, "Juggles", "At least 20 minutes", 1)));
+        drillCatalog.reload();
+        userService.registerUser(new User("bob_johnson", "123456789", "Bob", "Johnson", 7));
+        userService.registerUser(new User("ryan_daniels", "password", "Ryan", "Daniels", 8));
+        userService.registerUser(new User("jane_johnson", "password", "Jane", "Johnson", 10));
+    }
+
+    // the drills added above are rolled back by now, so the shared catalog must not keep serving them
+    @AfterTransaction
+    public void reloadWithoutDrills() {
+        assertEquals("reloadWithoutDrills: the drills should be rolled back", 0, drillCatalog.reload());
+    }
+
+    @Test
+    public void drillsPageEtagTest() throws Exception {
+        final MockHttpServletResponse first = mockMvc.perform(get("/soccerDrills").sessionAttr("username", "bob_johnson"))
+                .andReturn().getResponse();
+        assertEquals("drillsPageEtagTest: first visit should get the page", 200, first.getStatus());
+        assertTrue("drillsPageEtagTest: page should show the user's drills", first.getContentAsString().contains("At least 10 minutes"));
+        final String etag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull("drillsPageEtagTest: page should have an ETag", etag);
+        assertTrue("drillsPageEtagTest: page should be private", first.getHeader(HttpHeaders.CACHE_CONTROL).contains("private"));
+
+        final MockHttpServletResponse repeat = mockMvc.perform(get("/soccerDrills").sessionAttr("username", "bob_johnson")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse();
+        assertEquals("drillsPageEtagTest: repeat visit should be not modified", 304, repeat.getStatus());
+        assertEquals("drillsPageEtagTest: 304 should have no body", 0, repeat.getContentAsByteArray().length);
+
+        final MockHttpServletResponse sameBand = mockMvc.perform(get("/soccerDrills").sessionAttr("username", "ryan_daniels"))
+                .andReturn().getResponse();
+        assertEquals("drillsPageEtagTest: same band should share the page", etag, sameBand.getHeader(HttpHeaders.ETAG));
+        final MockHttpServletResponse otherBand = mockMvc.perform(get("/soccerDrills").sessionAttr("username", "jane_johnson")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse();
+        assertEquals("drillsPageEtagTest: another band should get its own page", 200, otherBand.getStatus());
+        assertTrue("drillsPageEtagTest: other band should show its drills", otherBand.getContentAsString().contains("At least 20 minutes"));
+    }
+
+    @Test
+    public void catalogChangeClearsPagesTest() throws Exception {
+        mockMvc.perform(get("/soccerDrills").sessionAttr("username", "bob_johnson"));
+        assertTrue("catalogChangeClearsPagesTest: page should be cached", drillPageCache.size() > 0);
+        drillRepo.save(new Drill(5, 8, "Passing Drills", "Wall passes with the inside of foot for 10 minutes", 2));
+        drillCatalog.reload();
+        final MockHttpServletResponse changed = mockMvc.perform(get("/soccerDrills").sessionAttr("username", "bob_johnson"))
+                .andReturn().getResponse();
+        assertTrue("catalogChangeClearsPagesTest: page should show the new drill", changed.getContentAsString().contains("Wall passes"));
+        assertEquals("catalogChangeClearsPagesTest: only the new page should be cached", 1, drillPageCache.size());
+    }
+
+    @Test
+    public void localesSharePageTest() throws Exception {
+        final MockHttpServletResponse english = mockMvc.perform(get("/soccerDrills").sessionAttr("username", "bob_johnson")
+                .header(HttpHeaders.ACCEPT_LANGUAGE, "en-US")).andReturn().getResponse();
+        final int cached = drillPageCache.size();
+        final MockHttpServletResponse other = mockMvc.perform(get("/soccerDrills").sessionAttr("username", "bob_johnson")
+                .header(HttpHeaders.ACCEPT_LANGUAGE, "x-made-up")).andReturn().getResponse();
+        assertEquals("localesSharePageTest: every language should get the same page", english.getHeader(HttpHeaders.ETAG),
+                other.getHeader(HttpHeaders.ETAG));
+        assertEquals("localesSharePageTest: another language should not cache another page", cached, drillPageCache.size());
+    }
+
+    @Test
+    public void notLoggedInRedirectTest() throws Exception {
+        final MockHttpServletResponse response = mockMvc.perform(get("/soccerDrills")).andReturn().getResponse();
+        assertEquals("notLoggedInRedirectTest: should redirect to login", "/login", response.getRedirectedUrl());
+    }
+}